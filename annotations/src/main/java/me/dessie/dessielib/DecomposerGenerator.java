@@ -0,0 +1,369 @@
+package me.dessie.dessielib;
+
+import me.dessie.dessielib.annotations.storageapi.RecomposeConstructor;
+import me.dessie.dessielib.annotations.storageapi.Stored;
+import me.dessie.dessielib.annotations.storageapi.StoredList;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a StorageDecomposer for each class with {@link Stored}, {@link StoredList} or {@link RecomposeConstructor} annotations.
+ *
+ * Generated decomposers access fields and call the constructor directly, and are listed in a service index
+ * so StorageAPI can register them without scanning the plugin's classes or using reflection.
+ * Private fields and constructors are accessed through handles that are looked up once, when the decomposer is loaded.
+ */
+class DecomposerGenerator {
+
+    static final String STORAGE_DECOMPOSER = "me.dessie.dessielib.storageapi.storage.decomposition.StorageDecomposer";
+    static final String SERVICE_INDEX = "META-INF/services/" + STORAGE_DECOMPOSER;
+
+    //Annotated classes that can't have a generated decomposer, so StorageAPI registers them reflectively instead.
+    static final String REFLECTIVE_INDEX = "META-INF/dessielib/reflective-decomposers";
+
+    private final ProcessingEnvironment processingEnv;
+    private final Types typeUtil;
+    private final Elements elementUtil;
+
+    //Every decomposer generated during this compilation, across all rounds.
+    private final Set<String> generated = new LinkedHashSet<>();
+    private final Set<String> reflective = new LinkedHashSet<>();
+
+    DecomposerGenerator(ProcessingEnvironment processingEnv) {
+        this.processingEnv = processingEnv;
+        this.typeUtil = processingEnv.getTypeUtils();
+        this.elementUtil = processingEnv.getElementUtils();
+    }
+
+    /**
+     * @return If StorageAPI is on the classpath, since the generated decomposers depend on it.
+     */
+    boolean isAvailable() {
+        return elementUtil.getTypeElement(STORAGE_DECOMPOSER) != null;
+    }
+
+    /**
+     * Generates the decomposer for a class, if it has any StorageAPI annotations.
+     * @param type The annotated class.
+     */
+    void generate(TypeElement type) {
+        String typeName = type.getQualifiedName().toString();
+        String packageName = elementUtil.getPackageOf(type).getQualifiedName().toString();
+        String decomposerName = typeName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1).replace('.', '_') + "_StorageDecomposer";
+        String qualifiedName = packageName.isEmpty() ? decomposerName : packageName + "." + decomposerName;
+
+        if(generated.contains(qualifiedName)) return;
+
+        if(!this.isAccessible(type)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "StorageAPI decomposers can't be generated for private or inner classes, so this class will be decomposed reflectively. Make the class static and non-private to generate one.", type);
+            reflective.add(elementUtil.getBinaryName(type).toString());
+            return;
+        }
+
+        List<VariableElement> decomposeFields = new ArrayList<>();
+        List<VariableElement> recomposeFields = new ArrayList<>();
+        for(VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Stored stored = field.getAnnotation(Stored.class);
+            StoredList storedList = field.getAnnotation(StoredList.class);
+            if(stored == null && storedList == null) continue;
+
+            decomposeFields.add(field);
+            if((stored != null && stored.recompose()) || (storedList != null && storedList.recompose())) {
+                recomposeFields.add(field);
+            }
+        }
+
+        ExecutableElement constructor = ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                .filter(c -> c.getAnnotation(RecomposeConstructor.class) != null)
+                .findFirst().orElse(null);
+
+        //If there's no storage fields, and no recompose constructor, there's nothing to generate.
+        if(decomposeFields.isEmpty() && constructor == null) return;
+
+        //The constructor can still pass the processor's check when it matches inherited fields, which aren't generated,
+        //so it's left for StorageAPI to register reflectively instead of having no decomposer at all.
+        if(constructor != null && !this.matches(constructor, recomposeFields)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "The @RecomposeConstructor parameters don't match this class's own recompose fields, so a StorageAPI decomposer can't be generated and this class will be decomposed reflectively.", type);
+            reflective.add(elementUtil.getBinaryName(type).toString());
+            return;
+        }
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(this.createSource(type, packageName, decomposerName, decomposeFields, recomposeFields, constructor));
+            }
+            generated.add(qualifiedName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to generate StorageDecomposer: " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * Writes the service index listing every generated decomposer, and the index of classes that need to be decomposed reflectively.
+     * This should only be called once, when processing is over.
+     */
+    void writeIndex() {
+        this.writeIndex(SERVICE_INDEX, generated);
+        this.writeIndex(REFLECTIVE_INDEX, reflective);
+    }
+
+    private void writeIndex(String name, Set<String> entries) {
+        if(entries.isEmpty()) return;
+
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", name);
+            try (Writer writer = file.openWriter()) {
+                for(String entry : entries) {
+                    writer.write(entry);
+                    writer.write("\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write StorageDecomposer index: " + e.getMessage());
+        }
+    }
+
+    private String createSource(TypeElement type, String packageName, String decomposerName, List<VariableElement> decomposeFields, List<VariableElement> recomposeFields, ExecutableElement constructor) {
+        String typeName = type.getQualifiedName().toString();
+        StringBuilder source = new StringBuilder();
+
+        if(!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+
+        source.append("import me.dessie.dessielib.storageapi.storage.container.ArrayContainer;\n")
+                .append("import me.dessie.dessielib.storageapi.storage.container.StorageContainer;\n")
+                .append("import me.dessie.dessielib.storageapi.storage.decomposition.DecomposedObject;\n")
+                .append("import me.dessie.dessielib.storageapi.storage.decomposition.RecomposedObject;\n")
+                .append("import me.dessie.dessielib.storageapi.storage.decomposition.StorageDecomposer;\n\n")
+                .append("import java.lang.invoke.MethodHandle;\n")
+                .append("import java.lang.invoke.MethodHandles;\n")
+                .append("import java.lang.invoke.MethodType;\n")
+                .append("import java.lang.invoke.VarHandle;\n")
+                .append("import java.util.concurrent.CompletableFuture;\n\n");
+
+        source.append("/**\n")
+                .append(" * Stores and recomposes {@link ").append(typeName).append("} without reflection.\n")
+                .append(" * Generated by DessieLibProcessor, do not edit.\n")
+                .append(" */\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("public final class ").append(decomposerName).append(" extends StorageDecomposer<").append(typeName).append("> {\n\n");
+
+        //Handles for anything that isn't directly accessible from the same package.
+        for(int i = 0; i < decomposeFields.size(); i++) {
+            VariableElement field = decomposeFields.get(i);
+            if(!field.getModifiers().contains(Modifier.PRIVATE)) continue;
+
+            source.append("    private static final VarHandle FIELD_").append(i).append(" = field(")
+                    .append(elementUtil.getConstantExpression(field.getSimpleName().toString())).append(", ")
+                    .append(this.getTypeLiteral(field.asType())).append(".class);\n");
+        }
+
+        boolean privateConstructor = constructor != null && constructor.getModifiers().contains(Modifier.PRIVATE);
+        if(privateConstructor) {
+            source.append("    private static final MethodHandle CONSTRUCTOR = constructor(MethodType.methodType(void.class");
+            for(VariableElement parameter : constructor.getParameters()) {
+                source.append(", ").append(this.getTypeLiteral(parameter.asType())).append(".class");
+            }
+            source.append("));\n");
+        }
+
+        source.append("\n    public ").append(decomposerName).append("() {\n")
+                .append("        super(").append(typeName).append(".class, ").append(decomposerName).append("::decompose");
+        if(constructor != null) {
+            source.append(", ").append(decomposerName).append("::recompose");
+        }
+        source.append(");\n    }\n\n");
+
+        //Decompose
+        source.append("    private static DecomposedObject decompose(").append(typeName).append(" object) {\n")
+                .append("        DecomposedObject decomposed = new DecomposedObject();\n");
+        for(int i = 0; i < decomposeFields.size(); i++) {
+            VariableElement field = decomposeFields.get(i);
+            source.append("        decomposed.addDecomposedKey(").append(elementUtil.getConstantExpression(this.getPath(field))).append(", ");
+
+            if(field.getModifiers().contains(Modifier.PRIVATE)) {
+                source.append("(Object) FIELD_").append(i).append(".get(object)");
+            } else {
+                source.append("object.").append(field.getSimpleName());
+            }
+            source.append(");\n");
+        }
+        source.append("        return decomposed;\n    }\n");
+
+        if(constructor != null) {
+            this.appendRecompose(source, typeName, recomposeFields, constructor, privateConstructor);
+        }
+
+        //Handle lookups
+        if(decomposeFields.stream().anyMatch(field -> field.getModifiers().contains(Modifier.PRIVATE))) {
+            source.append("\n    private static VarHandle field(String name, Class<?> type) {\n")
+                    .append("        try {\n")
+                    .append("            return MethodHandles.privateLookupIn(").append(typeName).append(".class, MethodHandles.lookup()).findVarHandle(").append(typeName).append(".class, name, type);\n")
+                    .append("        } catch (ReflectiveOperationException e) {\n")
+                    .append("            throw new ExceptionInInitializerError(e);\n")
+                    .append("        }\n    }\n");
+        }
+
+        if(privateConstructor) {
+            source.append("\n    private static MethodHandle constructor(MethodType type) {\n")
+                    .append("        try {\n")
+                    .append("            return MethodHandles.privateLookupIn(").append(typeName).append(".class, MethodHandles.lookup()).findConstructor(").append(typeName).append(".class, type);\n")
+                    .append("        } catch (ReflectiveOperationException e) {\n")
+                    .append("            throw new ExceptionInInitializerError(e);\n")
+                    .append("        }\n    }\n");
+        }
+
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private void appendRecompose(StringBuilder source, String typeName, List<VariableElement> recomposeFields, ExecutableElement constructor, boolean privateConstructor) {
+        RecomposeConstructor annotation = constructor.getAnnotation(RecomposeConstructor.class);
+        String fail = annotation.throwError() ? null : "return null;";
+
+        source.append("\n    private static CompletableFuture<").append(typeName).append("> recompose(StorageContainer container, RecomposedObject<").append(typeName).append("> recompose) {\n");
+
+        for(VariableElement field : recomposeFields) {
+            String path = elementUtil.getConstantExpression(this.getPath(field));
+
+            if(field.getAnnotation(Stored.class) != null) {
+                source.append("        recompose.addRecomposeKey(").append(path).append(", ").append(this.getTypeLiteral(field.asType())).append(".class);\n");
+            } else {
+                String listType = this.getTypeLiteral(this.getListType(field)) + ".class";
+                source.append("        if(container instanceof ArrayContainer<?> arrayContainer) {\n")
+                        .append("            recompose.addRecomposeKey(").append(path).append(", ").append(listType)
+                        .append(", path -> (CompletableFuture<Object>) (CompletableFuture<?>) arrayContainer.retrieveListAsync(").append(listType).append(", path));\n")
+                        .append("        }\n");
+            }
+        }
+
+        source.append("\n        return recompose.onComplete(completed -> {\n");
+
+        List<? extends VariableElement> parameters = constructor.getParameters();
+        for(int i = 0; i < recomposeFields.size(); i++) {
+            VariableElement field = recomposeFields.get(i);
+            TypeMirror parameterType = parameters.get(i).asType();
+            String boxed = this.getBoxedLiteral(parameterType);
+
+            source.append("            Object arg").append(i).append(" = completed.getCompletedObject(").append(elementUtil.getConstantExpression(this.getPath(field))).append(");\n");
+
+            //Primitives can never be null, even if null is allowed.
+            if(!annotation.allowNull() || parameterType.getKind().isPrimitive()) {
+                source.append("            if(arg").append(i).append(" == null) {\n")
+                        .append("                ").append(fail != null ? fail : "throw new IllegalStateException(\"When recomposing " + typeName + ", the parameter " + boxed + " was found to be null when not allowed.\");").append("\n")
+                        .append("            }\n");
+            }
+
+            source.append("            if(arg").append(i).append(" != null && !(arg").append(i).append(" instanceof ").append(boxed).append(")) {\n")
+                    .append("                ").append(fail != null ? fail : "throw new IllegalStateException(\"Cannot recompose " + typeName + ". Expected " + boxed + " for " + field.getSimpleName() + " but got \" + arg" + i + ".getClass().getName());").append("\n")
+                    .append("            }\n");
+        }
+
+        StringBuilder arguments = new StringBuilder();
+        for(int i = 0; i < recomposeFields.size(); i++) {
+            if(i != 0) arguments.append(", ");
+            arguments.append("(").append(this.getBoxedLiteral(parameters.get(i).asType())).append(") arg").append(i);
+        }
+
+        if(privateConstructor) {
+            source.append("\n            try {\n")
+                    .append("                return (").append(typeName).append(") CONSTRUCTOR.invoke(").append(arguments).append(");\n")
+                    .append("            } catch (Throwable e) {\n")
+                    .append("                e.printStackTrace();\n")
+                    .append("                return null;\n")
+                    .append("            }\n");
+        } else {
+            source.append("\n            return new ").append(typeName).append("(").append(arguments).append(");\n");
+        }
+
+        source.append("        });\n    }\n");
+    }
+
+    //The constructor parameters have to be the recompose fields, in the same order.
+    private boolean matches(ExecutableElement constructor, List<VariableElement> recomposeFields) {
+        List<? extends VariableElement> parameters = constructor.getParameters();
+        if(parameters.size() != recomposeFields.size()) return false;
+
+        for(int i = 0; i < parameters.size(); i++) {
+            if(!typeUtil.isSameType(typeUtil.erasure(parameters.get(i).asType()), typeUtil.erasure(recomposeFields.get(i).asType()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Generated decomposers are in the same package, so they can only reference static, non-private classes.
+    private boolean isAccessible(TypeElement type) {
+        Element current = type;
+        while (current instanceof TypeElement element) {
+            if(element.getModifiers().contains(Modifier.PRIVATE)) return false;
+            if(element.getNestingKind() == NestingKind.LOCAL || element.getNestingKind() == NestingKind.ANONYMOUS) return false;
+            if(element.getNestingKind() == NestingKind.MEMBER && !element.getModifiers().contains(Modifier.STATIC) && element.getKind() == ElementKind.CLASS) return false;
+
+            current = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private String getPath(VariableElement field) {
+        Stored stored = field.getAnnotation(Stored.class);
+        if(stored != null && !stored.storeAs().equals("")) return stored.storeAs();
+
+        StoredList storedList = field.getAnnotation(StoredList.class);
+        if(storedList != null && !storedList.storeAs().equals("")) return storedList.storeAs();
+
+        return field.getSimpleName().toString();
+    }
+
+    //Class values can't be read from annotations during processing, so read the type from the mirror instead.
+    private TypeMirror getListType(VariableElement field) {
+        for(AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if(!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(StoredList.class.getName())) continue;
+
+            for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if(entry.getKey().getSimpleName().contentEquals("type")) {
+                    return (TypeMirror) entry.getValue().getValue();
+                }
+            }
+        }
+
+        return elementUtil.getTypeElement("java.lang.Object").asType();
+    }
+
+    //The erased source name of a type, without any type annotations.
+    private String getTypeLiteral(TypeMirror type) {
+        TypeMirror erased = typeUtil.erasure(type);
+        if(erased.getKind().isPrimitive()) {
+            return erased.getKind().name().toLowerCase(Locale.ROOT);
+        }
+
+        if(erased instanceof ArrayType array) {
+            return this.getTypeLiteral(array.getComponentType()) + "[]";
+        }
+
+        return ((TypeElement) typeUtil.asElement(erased)).getQualifiedName().toString();
+    }
+
+    private String getBoxedLiteral(TypeMirror type) {
+        if(type.getKind().isPrimitive()) {
+            return typeUtil.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return this.getTypeLiteral(type);
+    }
+}
@@ -5,6 +5,7 @@ import me.dessie.dessielib.annotations.storageapi.Stored;
 import me.dessie.dessielib.annotations.storageapi.StoredList;
 
 import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
 import javax.annotation.processing.SupportedSourceVersion;
@@ -18,6 +19,7 @@ import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -26,6 +28,9 @@ import java.util.Set;
  *
  * By utilizing the annotationProcessor, errors and warnings will
  * be thrown in some cases to help with catching development errors at compile time.
+ *
+ * When StorageAPI is on the classpath, a StorageDecomposer is also generated for each annotated class,
+ * so they can be registered without scanning for classes or using reflection.
  */
 @SupportedAnnotationTypes(
         {"me.dessie.dessielib.annotations.storageapi.Stored",
@@ -35,8 +40,22 @@ import java.util.Set;
 @SupportedSourceVersion(SourceVersion.RELEASE_17)
 public class DessieLibProcessor extends AbstractProcessor {
 
+    private DecomposerGenerator generator;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.generator = new DecomposerGenerator(processingEnv);
+    }
+
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        //Every class has been generated, so the index can be written.
+        if(roundEnv.processingOver()) {
+            this.generator.writeIndex();
+            return false;
+        }
+
         if(!this.claim(annotations)) return false;
         Types typeUtil = processingEnv.getTypeUtils();
         Elements elementUtil = processingEnv.getElementUtils();
@@ -81,6 +100,19 @@ public class DessieLibProcessor extends AbstractProcessor {
             } else return true;
         }
 
+        if(this.generator.isAvailable()) {
+            Set<TypeElement> annotatedClasses = new LinkedHashSet<>();
+            for(Set<? extends Element> elements : List.of(storedElements, storedListElements, recomposeConstructElements)) {
+                for(Element element : elements) {
+                    if(element.getEnclosingElement() instanceof TypeElement enclosingClass) {
+                        annotatedClasses.add(enclosingClass);
+                    }
+                }
+            }
+
+            annotatedClasses.forEach(this.generator::generate);
+        }
+
         return true;
     }
 
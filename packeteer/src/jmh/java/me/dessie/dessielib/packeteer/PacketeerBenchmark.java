@@ -0,0 +1,122 @@
+package me.dessie.dessielib.packeteer;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.Packet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of Packeteer's injected handler per packet, in both directions.
+ *
+ * Packets are pushed through an {@link EmbeddedChannel}, half of them have a handler and half of them don't.
+ * Run with the gc profiler to see the allocation rate per packet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PacketeerBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int listeners;
+
+    private final Packet<?>[] stream = new Packet<?>[256];
+    private final List<PacketListener> added = new ArrayList<>();
+
+    private Packeteer packeteer;
+    private EmbeddedChannel injected;
+    private EmbeddedChannel plain;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        packeteer = new Packeteer();
+        for(int i = 0; i < listeners; i++) {
+            BenchmarkListener listener = new BenchmarkListener();
+            packeteer.addListener(listener);
+            added.add(listener);
+        }
+
+        for(int i = 0; i < stream.length; i++) {
+            stream[i] = i % 2 == 0 ? new HandledPacket(i) : new UnhandledPacket(i);
+        }
+
+        injected = new EmbeddedChannel(new PacketeerChannelHandler(packeteer, null));
+        plain = new EmbeddedChannel();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        added.forEach(packeteer::removeListener);
+        added.clear();
+        injected.finishAndReleaseAll();
+        plain.finishAndReleaseAll();
+    }
+
+    private Packet<?> next() {
+        return stream[index++ & (stream.length - 1)];
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) {
+        injected.writeInbound(next());
+        blackhole.consume(injected.readInbound());
+    }
+
+    @Benchmark
+    public void write(Blackhole blackhole) {
+        injected.writeOutbound(next());
+        blackhole.consume(injected.readOutbound());
+    }
+
+    //Baselines without Packeteer in the pipeline, the difference is the injection overhead.
+    @Benchmark
+    public void readBaseline(Blackhole blackhole) {
+        plain.writeInbound(next());
+        blackhole.consume(plain.readInbound());
+    }
+
+    @Benchmark
+    public void writeBaseline(Blackhole blackhole) {
+        plain.writeOutbound(next());
+        blackhole.consume(plain.readOutbound());
+    }
+
+    public static class BenchmarkListener implements PacketListener {
+        private long handled;
+
+        @PacketeerHandler(thread = HandlerThread.INLINE)
+        public void onPacket(HandledPacket packet) {
+            handled += packet.id();
+        }
+    }
+
+    public record HandledPacket(int id) implements Packet<net.minecraft.network.PacketListener> {
+        @Override
+        public void write(FriendlyByteBuf buf) {}
+
+        @Override
+        public void handle(net.minecraft.network.PacketListener listener) {}
+    }
+
+    public record UnhandledPacket(int id) implements Packet<net.minecraft.network.PacketListener> {
+        @Override
+        public void write(FriendlyByteBuf buf) {}
+
+        @Override
+        public void handle(net.minecraft.network.PacketListener listener) {}
+    }
+}
@@ -0,0 +1,25 @@
+package me.dessie.dessielib.packeteer;
+
+/**
+ * Determines which thread a {@link PacketeerHandler} method is executed on.
+ */
+public enum HandlerThread {
+
+    /**
+     * The handler is ran immediately on the Player's Netty event loop.
+     * Handlers using this mode must not touch the Bukkit API, and should return quickly.
+     */
+    INLINE,
+
+    /**
+     * The packet is queued, and the handler is ran on the main server thread.
+     * All queued packets are drained once per tick.
+     */
+    MAIN_BATCHED,
+
+    /**
+     * The handler is ran on Packeteer's dedicated asynchronous thread pool.
+     * Handlers using this mode must not touch the Bukkit API.
+     */
+    ASYNC
+}
@@ -0,0 +1,113 @@
+package me.dessie.dessielib.packeteer;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in nanoseconds.
+ *
+ * Durations are recorded into power of two buckets, so bucket {@code i} holds every duration
+ * that is less than {@code 2^i} nanoseconds, and at least {@code 2^(i-1)} nanoseconds.
+ */
+public class LatencyHistogram {
+
+    /**
+     * The amount of buckets, the last bucket holds every duration of 2^(BUCKETS - 2) nanoseconds or more.
+     */
+    public static final int BUCKETS = 40;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+        for(int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a duration.
+     * @param nanos The duration, in nanoseconds.
+     */
+    void record(long nanos) {
+        if(nanos < 0) nanos = 0;
+
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos))].increment();
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Clears all recorded durations.
+     */
+    void reset() {
+        for(LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+
+    /**
+     * @return A copy of the currently recorded durations.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for(int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+
+        return new Snapshot(count.sum(), total.sum(), max.get(), counts);
+    }
+
+    /**
+     * A point in time copy of a {@link LatencyHistogram}.
+     * Since the histogram is updated without locking, the values may be slightly inconsistent with each other.
+     *
+     * @param count The amount of recorded durations.
+     * @param totalNanos The sum of all recorded durations.
+     * @param maxNanos The longest recorded duration.
+     * @param buckets The amount of durations in each power of two bucket.
+     */
+    public record Snapshot(long count, long totalNanos, long maxNanos, long[] buckets) {
+
+        /**
+         * @return The average recorded duration, in nanoseconds.
+         */
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * Returns an upper bound of the duration at the provided percentile.
+         * Since durations are bucketed, this is the upper bound of the bucket the percentile falls in.
+         *
+         * @param percentile The percentile, between 0 and 100.
+         * @return The upper bound of the duration at the percentile, in nanoseconds.
+         */
+        public long getPercentileNanos(double percentile) {
+            long bucketTotal = 0;
+            for(long bucket : buckets) {
+                bucketTotal += bucket;
+            }
+
+            if(bucketTotal == 0) return 0;
+
+            long target = (long) Math.ceil(bucketTotal * (Math.min(100, Math.max(0, percentile)) / 100));
+            long seen = 0;
+            for(int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if(seen >= target) {
+                    return Math.min(maxNanos, (1L << i) - 1);
+                }
+            }
+
+            return maxNanos;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package me.dessie.dessielib.packeteer;
+
+/**
+ * The direction a packet is travelling through a Player's pipeline.
+ */
+public enum PacketDirection {
+
+    /**
+     * The packet was sent by the client, and is being read by the server.
+     */
+    INBOUND,
+
+    /**
+     * The packet was sent by the server, and is being written to the client.
+     */
+    OUTBOUND
+}
@@ -0,0 +1,71 @@
+package me.dessie.dessielib.packeteer;
+
+import net.minecraft.network.protocol.Packet;
+import org.bukkit.entity.Player;
+
+import java.util.Objects;
+
+/**
+ * Wraps a packet that is being intercepted by Packeteer before it is forwarded through the pipeline.
+ *
+ * Handlers that accept a PacketEvent are always executed inline on the Player's Netty event loop,
+ * regardless of their {@link HandlerThread}, so they can cancel or replace the packet before it is sent or read.
+ * The packet type a handler listens for is taken from the generic type of the event, such as {@code PacketEvent<ClientboundSetEntityDataPacket>}.
+ *
+ * @param <T> The type of the Packet
+ */
+public class PacketEvent<T extends Packet<?>> {
+
+    private final Player player;
+    private final PacketDirection direction;
+    private Packet<?> packet;
+    private boolean cancelled;
+
+    PacketEvent(Player player, Packet<?> packet, PacketDirection direction) {
+        this.player = player;
+        this.packet = packet;
+        this.direction = direction;
+    }
+
+    /**
+     * @return The Player that is sending or receiving the packet.
+     */
+    public Player getPlayer() {return player;}
+
+    /**
+     * @return If the packet is being read from or written to the Player.
+     */
+    public PacketDirection getDirection() {return direction;}
+
+    /**
+     * Returns the packet that will be forwarded.
+     * If a previous handler has replaced the packet, this will return the replacement.
+     *
+     * @return The packet
+     */
+    @SuppressWarnings("unchecked")
+    public T getPacket() {return (T) packet;}
+
+    /**
+     * Replaces the packet that will be forwarded through the pipeline.
+     *
+     * @param packet The new packet
+     */
+    public void setPacket(Packet<?> packet) {
+        this.packet = Objects.requireNonNull(packet, "Packet cannot be null!");
+    }
+
+    /**
+     * @return If the packet will be dropped instead of forwarded.
+     */
+    public boolean isCancelled() {return cancelled;}
+
+    /**
+     * Sets if the packet should be dropped instead of forwarded.
+     *
+     * @param cancelled If the packet should be cancelled
+     */
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+}
@@ -0,0 +1,79 @@
+package me.dessie.dessielib.packeteer;
+
+import net.minecraft.network.protocol.Packet;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes resolved {@link PacketHandlerMethod}s on the thread requested by their {@link HandlerThread}.
+ */
+class PacketExecutor {
+
+    private final Queue<QueuedPacket> mainQueue = new ConcurrentLinkedQueue<>();
+    private final ExecutorService asyncPool;
+    private final BukkitTask drainTask;
+
+    /**
+     * @param plugin The plugin that registered Packeteer, used to schedule the main thread drain.
+     * @param asyncThreads The amount of threads in the asynchronous pool.
+     */
+    PacketExecutor(JavaPlugin plugin, int asyncThreads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "Packeteer-Async-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        this.asyncPool = Executors.newFixedThreadPool(asyncThreads, factory);
+        this.drainTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::drain, 1, 1);
+    }
+
+    /**
+     * Executes a handler for a packet on the handler's requested thread.
+     * {@link HandlerThread#INLINE} handlers are invoked directly by Packeteer, and never reach the executor.
+     *
+     * @param handler The handler to execute.
+     * @param packet The packet that was sent or received.
+     * @param player The player the packet belongs to.
+     */
+    void execute(PacketHandlerMethod handler, Packet<?> packet, Player player) {
+        switch (handler.getThread()) {
+            case MAIN_BATCHED -> mainQueue.offer(new QueuedPacket(handler, packet, player));
+            case ASYNC -> asyncPool.execute(() -> handler.invoke(packet, player));
+        }
+    }
+
+    /**
+     * Runs all handlers that have been queued for the main thread.
+     * Only packets that were queued before the drain started are handled, so a flood of packets can't stall the tick.
+     */
+    void drain() {
+        int size = mainQueue.size();
+        for(int i = 0; i < size; i++) {
+            QueuedPacket queued = mainQueue.poll();
+            if(queued == null) break;
+
+            queued.handler().invoke(queued.packet(), queued.player());
+        }
+    }
+
+    /**
+     * Stops the main thread drain and the asynchronous pool.
+     */
+    void shutdown() {
+        drainTask.cancel();
+        asyncPool.shutdown();
+        mainQueue.clear();
+    }
+
+    private record QueuedPacket(PacketHandlerMethod handler, Packet<?> packet, Player player) {}
+}
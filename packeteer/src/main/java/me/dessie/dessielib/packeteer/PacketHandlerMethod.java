@@ -0,0 +1,183 @@
+package me.dessie.dessielib.packeteer;
+
+import net.minecraft.network.protocol.Packet;
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * A resolved {@link PacketeerHandler} method.
+ *
+ * Handler methods are resolved once when their {@link PacketListener} is added to Packeteer,
+ * and are then invoked through a bound {@link MethodHandle} instead of reflection.
+ */
+class PacketHandlerMethod {
+
+    private static final MethodType INVOKE_TYPE = MethodType.methodType(void.class, Packet.class, Player.class);
+    private static final MethodType EVENT_INVOKE_TYPE = MethodType.methodType(void.class, PacketEvent.class);
+
+    private final PacketListener listener;
+    private final Method method;
+    private final Class<?> packetType;
+    private final MethodHandle handle;
+    private final HandlerThread thread;
+    private final boolean event;
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private PacketHandlerMethod(PacketListener listener, Method method, Class<?> packetType, MethodHandle handle, boolean event) {
+        this.listener = listener;
+        this.method = method;
+        this.packetType = packetType;
+        this.handle = handle;
+        this.event = event;
+        this.name = method.getDeclaringClass().getName() + "#" + method.getName();
+
+        //Events have to be handled before the packet is forwarded, so they're always inline.
+        this.thread = event ? HandlerThread.INLINE : method.getAnnotation(PacketeerHandler.class).thread();
+    }
+
+    /**
+     * Attempts to resolve a handler from a method.
+     *
+     * Valid handlers are annotated with {@link PacketeerHandler}, and have either a Packet parameter,
+     * a Packet and a Player parameter, or a single {@link PacketEvent} parameter.
+     *
+     * @param listener The listener instance the method belongs to.
+     * @param method The method to resolve.
+     * @return The resolved handler, or null if the method is not a valid handler.
+     */
+    static PacketHandlerMethod resolve(PacketListener listener, Method method) {
+        if(!method.isAnnotationPresent(PacketeerHandler.class) || Modifier.isStatic(method.getModifiers())) return null;
+
+        Class<?>[] params = method.getParameterTypes();
+        if(params.length == 0 || params.length > 2) return null;
+
+        try {
+            if(params.length == 1 && params[0] == PacketEvent.class) {
+                method.setAccessible(true);
+                MethodHandle handle = MethodHandles.lookup().unreflect(method).bindTo(listener);
+                return new PacketHandlerMethod(listener, method, getEventPacketType(method), handle.asType(EVENT_INVOKE_TYPE), true);
+            }
+
+            if(!Packet.class.isAssignableFrom(params[0])) return null;
+            if(params.length == 2 && params[1] != Player.class) return null;
+
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method).bindTo(listener);
+
+            //Adapt single parameter handlers so every handler can be called with (Packet, Player).
+            if(params.length == 1) {
+                handle = MethodHandles.dropArguments(handle, 1, Player.class);
+            }
+
+            return new PacketHandlerMethod(listener, method, params[0], handle.asType(INVOKE_TYPE), false);
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    //Reads the Packet type from PacketEvent<T>, defaulting to every Packet if it's raw or a wildcard.
+    private static Class<?> getEventPacketType(Method method) {
+        Type type = method.getGenericParameterTypes()[0];
+        if(type instanceof ParameterizedType parameterized) {
+            Type argument = parameterized.getActualTypeArguments()[0];
+            if(argument instanceof ParameterizedType packetType) {
+                argument = packetType.getRawType();
+            }
+
+            if(argument instanceof Class<?> clazz) {
+                return clazz;
+            }
+        }
+
+        return Packet.class;
+    }
+
+    /**
+     * Invokes the handler.
+     *
+     * @param packet The packet that was sent or received.
+     * @param player The player the packet belongs to.
+     */
+    void invoke(Packet<?> packet, Player player) {
+        boolean timed = Packeteer.getMetrics().isEnabled();
+        long start = timed ? System.nanoTime() : 0;
+
+        try {
+            handle.invokeExact((Packet) packet, player);
+        } catch (Throwable e) {
+            e.printStackTrace();
+        }
+
+        if(timed) latency.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Invokes an event handler.
+     *
+     * @param event The event wrapping the intercepted packet.
+     */
+    void invoke(PacketEvent<?> event) {
+        boolean timed = Packeteer.getMetrics().isEnabled();
+        long start = timed ? System.nanoTime() : 0;
+
+        try {
+            handle.invokeExact((PacketEvent) event);
+        } catch (Throwable e) {
+            e.printStackTrace();
+        }
+
+        if(timed) latency.record(System.nanoTime() - start);
+    }
+
+    /**
+     * @param packetClass The class of the Packet.
+     * @return If this handler should receive packets of the provided class, including subclasses.
+     */
+    boolean accepts(Class<?> packetClass) {
+        return this.getPacketType().isAssignableFrom(packetClass);
+    }
+
+    /**
+     * @return The listener instance that owns the handler.
+     */
+    PacketListener getListener() {return listener;}
+
+    /**
+     * @return The annotated method.
+     */
+    Method getMethod() {return method;}
+
+    /**
+     * @return The Packet type that the handler accepts.
+     */
+    Class<?> getPacketType() {return packetType;}
+
+    /**
+     * @return The thread the handler should be executed on.
+     */
+    HandlerThread getThread() {return thread;}
+
+    /**
+     * @return If the handler accepts a {@link PacketEvent} and can cancel or replace the packet.
+     */
+    boolean isEvent() {return event;}
+
+    /**
+     * @return The name of the handler, as the declaring class and method name.
+     */
+    String getName() {return name;}
+
+    /**
+     * @return The invocation times of the handler.
+     */
+    LatencyHistogram getLatency() {return latency;}
+}
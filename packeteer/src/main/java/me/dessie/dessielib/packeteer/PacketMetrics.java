@@ -0,0 +1,158 @@
+package me.dessie.dessielib.packeteer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records packet throughput and {@link PacketeerHandler} latency for Packeteer.
+ *
+ * All counters are {@link LongAdder}s, so recording from the Netty event loops never contends.
+ * Metrics are disabled by default, and can be enabled using {@link #setEnabled(boolean)}.
+ */
+public class PacketMetrics {
+
+    private static final int DIRECTIONS = PacketDirection.values().length;
+
+    private final Map<Class<?>, LongAdder[]> packetCounts = new ConcurrentHashMap<>();
+    private final LongAdder[] bytes = new LongAdder[DIRECTIONS];
+    private final Collection<PacketHandlerMethod> handlers;
+
+    private volatile boolean enabled;
+
+    PacketMetrics(Collection<PacketHandlerMethod> handlers) {
+        this.handlers = handlers;
+        for(int i = 0; i < DIRECTIONS; i++) {
+            bytes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return If metrics are currently being recorded.
+     */
+    public boolean isEnabled() {return enabled;}
+
+    /**
+     * Sets if metrics should be recorded.
+     * @param enabled If metrics should be recorded.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Records a packet passing through a Player's pipeline.
+     *
+     * @param packetClass The class of the Packet.
+     * @param direction The direction of the Packet.
+     */
+    void recordPacket(Class<?> packetClass, PacketDirection direction) {
+        LongAdder[] counts = packetCounts.get(packetClass);
+        if(counts == null) {
+            counts = packetCounts.computeIfAbsent(packetClass, PacketMetrics::createCounters);
+        }
+
+        counts[direction.ordinal()].increment();
+    }
+
+    /**
+     * Records encoded bytes passing through a Player's pipeline.
+     *
+     * @param amount The amount of bytes.
+     * @param direction The direction of the bytes.
+     */
+    void recordBytes(int amount, PacketDirection direction) {
+        bytes[direction.ordinal()].add(amount);
+    }
+
+    /**
+     * @return A copy of the currently recorded metrics.
+     */
+    public Snapshot snapshot() {
+        Map<Class<?>, PacketCount> counts = new HashMap<>();
+        packetCounts.forEach((clazz, adders) -> counts.put(clazz, new PacketCount(adders[PacketDirection.INBOUND.ordinal()].sum(), adders[PacketDirection.OUTBOUND.ordinal()].sum())));
+
+        Map<String, LatencyHistogram.Snapshot> latencies = new HashMap<>();
+        for(PacketHandlerMethod handler : handlers) {
+            latencies.put(handler.getName(), handler.getLatency().snapshot());
+        }
+
+        return new Snapshot(Collections.unmodifiableMap(counts), bytes[PacketDirection.INBOUND.ordinal()].sum(),
+                bytes[PacketDirection.OUTBOUND.ordinal()].sum(), Collections.unmodifiableMap(latencies));
+    }
+
+    /**
+     * Clears all recorded metrics.
+     */
+    public void reset() {
+        packetCounts.clear();
+        for(LongAdder adder : bytes) {
+            adder.reset();
+        }
+
+        for(PacketHandlerMethod handler : handlers) {
+            handler.getLatency().reset();
+        }
+    }
+
+    /**
+     * Creates a handler that counts the encoded bytes read and written by a channel.
+     * This should be at the front of the pipeline, where messages are still raw bytes.
+     *
+     * @return The byte counting handler.
+     */
+    ChannelHandler createByteCounter() {
+        return new ChannelDuplexHandler() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                if(isEnabled() && msg instanceof ByteBuf buf) {
+                    recordBytes(buf.readableBytes(), PacketDirection.INBOUND);
+                }
+                super.channelRead(ctx, msg);
+            }
+
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+                if(isEnabled() && msg instanceof ByteBuf buf) {
+                    recordBytes(buf.readableBytes(), PacketDirection.OUTBOUND);
+                }
+                super.write(ctx, msg, promise);
+            }
+        };
+    }
+
+    private static LongAdder[] createCounters(Class<?> packetClass) {
+        LongAdder[] counters = new LongAdder[DIRECTIONS];
+        for(int i = 0; i < DIRECTIONS; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    /**
+     * The amount of a single Packet type that has been read and written.
+     *
+     * @param inbound The amount of packets read from Players.
+     * @param outbound The amount of packets written to Players.
+     */
+    public record PacketCount(long inbound, long outbound) {}
+
+    /**
+     * A point in time copy of {@link PacketMetrics}.
+     *
+     * @param packets The amount of packets by Packet class.
+     * @param inboundBytes The amount of encoded bytes read from Players.
+     * @param outboundBytes The amount of encoded bytes written to Players.
+     * @param handlers The latency of each handler, keyed by the handler's class and method name.
+     */
+    public record Snapshot(Map<Class<?>, PacketCount> packets, long inboundBytes, long outboundBytes, Map<String, LatencyHistogram.Snapshot> handlers) {}
+}
@@ -1,7 +1,6 @@
 package me.dessie.dessielib.packeteer;
 
 import io.netty.channel.*;
-import io.netty.util.concurrent.Promise;
 import net.minecraft.network.protocol.Packet;
 import org.bukkit.Bukkit;
 import org.bukkit.craftbukkit.v1_19_R1.entity.CraftPlayer;
@@ -10,32 +9,52 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.event.server.PluginEnableEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Event handlers for incoming and outgoing packets.
  *
- * Packeteer handlers should have a Packet and a Player as parameters.
+ * Packeteer handlers should have a Packet and a Player as parameters, or a single {@link PacketEvent}
+ * if they need to cancel or replace the packet.
  */
 public class Packeteer implements Listener {
 
-    private static final List<PacketListener> HANDLERS = new ArrayList<>();
+    private static final List<PacketListener> HANDLERS = new CopyOnWriteArrayList<>();
+    private static final List<PacketHandlerMethod> HANDLER_METHODS = new CopyOnWriteArrayList<>();
+
+    //Packet class -> Handlers that accept it, including handlers of any supertype. Lazily populated per Packet class.
+    //Swapped out entirely when a listener is added, so an in-flight lookup can never cache a stale entry.
+    private static volatile Map<Class<?>, PacketHandlerMethod[]> dispatch = new ConcurrentHashMap<>();
+    private static final PacketHandlerMethod[] NO_HANDLERS = new PacketHandlerMethod[0];
+
+    private static final String HANDLER_NAME = "packeteer";
+    private static final String METRICS_HANDLER = "packeteer_metrics";
+    private static final PacketMetrics METRICS = new PacketMetrics(HANDLER_METHODS);
 
     private static boolean registered;
-    private static final List<UUID> injectedPlayers = new ArrayList<>();
+    private static final Map<UUID, PacketeerChannelHandler> injectedPlayers = new ConcurrentHashMap<>();
     private static JavaPlugin plugin;
+    private static PacketExecutor executor;
 
-    private Packeteer() {
-        getPlugin().getServer().getPluginManager().registerEvents(this, getPlugin());
-    }
+    private static volatile boolean batchFlushing;
+    private static volatile int maxBatchedWrites = 256;
+
+    //Package-private so the pipeline can be exercised without a server, such as in benchmarks.
+    Packeteer() {}
 
     /**
      * Enables Packeteer to start listening for packets.
@@ -43,14 +62,33 @@ public class Packeteer implements Listener {
      * @return A {@link Packeteer} instance for usage.
      */
     public static Packeteer register(JavaPlugin yourPlugin) {
+        return register(yourPlugin, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * Enables Packeteer to start listening for packets.
+     * @param yourPlugin Your plugin instance
+     * @param asyncThreads The amount of threads used to run {@link HandlerThread#ASYNC} handlers.
+     * @return A {@link Packeteer} instance for usage.
+     */
+    public static Packeteer register(JavaPlugin yourPlugin, int asyncThreads) {
+        if(asyncThreads < 1) {
+            throw new IllegalArgumentException("Packeteer requires at least 1 async thread.");
+        }
+
         if(isRegistered()) {
             throw new IllegalStateException("Cannot register Packeteer in " + yourPlugin.getName() + ". Already registered by " + getPlugin().getName());
         }
 
         registered = true;
         plugin = yourPlugin;
+        executor = new PacketExecutor(yourPlugin, asyncThreads);
+
+        Packeteer packeteer = new Packeteer();
+        yourPlugin.getServer().getPluginManager().registerEvents(packeteer, yourPlugin);
+        yourPlugin.getServer().getScheduler().runTaskTimer(yourPlugin, Packeteer::flushAll, 1, 1);
 
-        return new Packeteer();
+        return packeteer;
     }
 
     /**
@@ -63,7 +101,60 @@ public class Packeteer implements Listener {
     /**
      * @return All Players that are currently injected into Packeteer's Pipeline
      */
-    public static List<UUID> getInjectedPlayers() {return injectedPlayers;}
+    public static Set<UUID> getInjectedPlayers() {return Collections.unmodifiableSet(injectedPlayers.keySet());}
+
+    /**
+     * @return If outbound flushes are batched into a single flush per Player per tick.
+     */
+    public static boolean isBatchFlushing() {return batchFlushing;}
+
+    /**
+     * Sets if outbound flushes should be batched.
+     *
+     * When enabled, packets written to a Player are buffered in their channel and flushed together once per tick,
+     * instead of each packet being flushed on its own. This adds up to a tick of latency to outgoing packets.
+     *
+     * @param batch If flushes should be batched
+     */
+    public static void setBatchFlushing(boolean batch) {
+        batchFlushing = batch;
+
+        //Don't leave any held back writes sitting in the channels.
+        if(!batch) flushAll();
+    }
+
+    /**
+     * @return The maximum amount of writes buffered for a Player before they're flushed early.
+     */
+    public static int getMaxBatchedWrites() {return maxBatchedWrites;}
+
+    /**
+     * Sets the maximum amount of writes that are buffered for a Player before they are flushed, even if the tick hasn't ended.
+     * Only used if batch flushing is enabled.
+     *
+     * @param maxWrites The maximum amount of buffered writes
+     */
+    public static void setMaxBatchedWrites(int maxWrites) {
+        if(maxWrites < 1) {
+            throw new IllegalArgumentException("Max batched writes must be at least 1.");
+        }
+
+        maxBatchedWrites = maxWrites;
+    }
+
+    private static void flushAll() {
+        for(PacketeerChannelHandler handler : injectedPlayers.values()) {
+            handler.flushBatched();
+        }
+    }
+
+    /**
+     * Returns the metrics Packeteer records about packet throughput and handler latency.
+     * Metrics are disabled by default, see {@link PacketMetrics#setEnabled(boolean)}.
+     *
+     * @return Packeteer's metrics
+     */
+    public static PacketMetrics getMetrics() {return METRICS;}
 
     /**
      * Returns the {@link JavaPlugin} that registered Packeteer.
@@ -78,39 +169,108 @@ public class Packeteer implements Listener {
      * @param listener Your PacketListener instance
      */
     public void addListener(PacketListener listener) {
-        HANDLERS.add(listener);
-    }
-
-    private void handle(Player player, Packet<?> packet) {
-        for(PacketListener listener : HANDLERS) {
-            for(Method method : listener.getClass().getDeclaredMethods()) {
-                if(!method.isAnnotationPresent(PacketeerHandler.class)) continue;
-                if(method.getParameterCount() == 1) {
-                    if(!Arrays.stream(method.getParameterTypes()).allMatch(param -> param.isAssignableFrom(packet.getClass()))) continue;
-
-                    method.setAccessible(true);
-                    Bukkit.getScheduler().runTask(getPlugin(), () -> {
-                        try {
-                            method.invoke(listener, packet, player);
-                        } catch (IllegalAccessException | InvocationTargetException e) {
-                            e.printStackTrace();
-                        }
-                    });
-
-                } else if(method.getParameterCount() == 2) {
-                    if(method.getParameterTypes()[0] != packet.getClass() || method.getParameterTypes()[1] != Player.class) continue;
-
-                    method.setAccessible(true);
-                    Bukkit.getScheduler().runTask(getPlugin(), () -> {
-                        try {
-                            method.invoke(listener, packet, player);
-                        } catch (IllegalAccessException | InvocationTargetException e) {
-                            e.printStackTrace();
-                        }
-                    });
+        List<PacketHandlerMethod> methods = new ArrayList<>();
+        for(Method method : listener.getClass().getDeclaredMethods()) {
+            PacketHandlerMethod handler = PacketHandlerMethod.resolve(listener, method);
+            if(handler != null) {
+                methods.add(handler);
+            }
+        }
+
+        synchronized (HANDLERS) {
+            HANDLERS.add(listener);
+            HANDLER_METHODS.addAll(methods);
+
+            //The dispatch table is rebuilt lazily for each Packet class.
+            dispatch = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Removes a Listener class from Packeteer.
+     * None of the Listener's {@link PacketeerHandler} methods will be called after it's removed.
+     *
+     * @param listener The PacketListener instance to remove
+     */
+    public void removeListener(PacketListener listener) {
+        synchronized (HANDLERS) {
+            HANDLERS.remove(listener);
+            HANDLER_METHODS.removeIf(handler -> handler.getListener() == listener);
+            dispatch = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Returns all handlers that accept the provided Packet class.
+     * Packet classes without any handlers resolve to a shared empty array.
+     *
+     * @param packetClass The class of the Packet
+     * @return The handlers that should be invoked for the Packet class.
+     */
+    static PacketHandlerMethod[] getHandlers(Class<?> packetClass) {
+        Map<Class<?>, PacketHandlerMethod[]> table = dispatch;
+        PacketHandlerMethod[] handlers = table.get(packetClass);
+        if(handlers != null) return handlers;
+
+        return table.computeIfAbsent(packetClass, Packeteer::resolveHandlers);
+    }
+
+    private static PacketHandlerMethod[] resolveHandlers(Class<?> packetClass) {
+        //Event handlers are sorted first, since they can cancel or replace the packet before anything else sees it.
+        PacketHandlerMethod[] handlers = HANDLER_METHODS.stream()
+                .filter(handler -> handler.accepts(packetClass))
+                .sorted(Comparator.comparing(handler -> !handler.isEvent()))
+                .toArray(PacketHandlerMethod[]::new);
+
+        return handlers.length == 0 ? NO_HANDLERS : handlers;
+    }
+
+    /**
+     * Dispatches a packet to its handlers.
+     * {@link PacketEvent} handlers are ran first, and synchronously, so they can cancel or replace the packet.
+     *
+     * @return The packet that should be forwarded, or null if the packet was cancelled.
+     */
+    Packet<?> handle(Player player, Packet<?> packet, PacketDirection direction) {
+        if(METRICS.isEnabled()) {
+            METRICS.recordPacket(packet.getClass(), direction);
+        }
+
+        PacketHandlerMethod[] handlers = getHandlers(packet.getClass());
+        if(handlers.length == 0) return packet;
+
+        PacketEvent<?> event = null;
+        for(PacketHandlerMethod handler : handlers) {
+            if(handler.isEvent()) {
+                if(event == null) event = new PacketEvent<>(player, packet, direction);
+
+                //A previous handler may have replaced the packet with one this handler doesn't listen for.
+                if(handler.accepts(event.getPacket().getClass())) {
+                    handler.invoke(event);
                 }
+                continue;
             }
+
+            if(event != null) {
+                if(event.isCancelled()) return null;
+                packet = event.getPacket();
+                event = null;
+            }
+
+            if(!handler.accepts(packet.getClass())) continue;
+
+            if(handler.getThread() == HandlerThread.INLINE) {
+                handler.invoke(packet, player);
+            } else {
+                executor.execute(handler, packet, player);
+            }
+        }
+
+        if(event != null) {
+            return event.isCancelled() ? null : event.getPacket();
         }
+
+        return packet;
     }
 
     @EventHandler
@@ -122,10 +282,7 @@ public class Packeteer implements Listener {
 
     @EventHandler
     private void onQuit(PlayerQuitEvent event) {
-        if(getInjectedPlayers().contains(event.getPlayer().getUniqueId())) {
-            unInject(event.getPlayer());
-            getInjectedPlayers().remove(event.getPlayer().getUniqueId());
-        }
+        unInject(event.getPlayer());
     }
 
     @EventHandler
@@ -136,37 +293,90 @@ public class Packeteer implements Listener {
         }
     }
 
-    private Promise<?> unInject(Player player) {
-        Channel channel = ((CraftPlayer) player).getHandle().connection.connection.channel;
-        return (Promise<?>) channel.eventLoop().submit(() -> {
-            channel.pipeline().remove(player.getName());
+    @EventHandler
+    private void onDisable(PluginDisableEvent event) {
+        if(event.getPlugin() != getPlugin()) return;
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            unInject(player);
+        }
+
+        executor.shutdown();
+    }
+
+    /**
+     * Removes a handler from the injected players, if it's still the registered handler for its Player.
+     * Called when the handler leaves its pipeline, so closed channels don't keep their Player.
+     */
+    static void forget(PacketeerChannelHandler handler) {
+        //Handlers that were never injected for a Player, such as in the benchmarks, were never registered.
+        if(handler.getPlayer() == null) return;
+
+        injectedPlayers.remove(handler.getPlayer().getUniqueId(), handler);
+    }
+
+    private static Channel getChannel(Player player) {
+        return ((CraftPlayer) player).getHandle().connection.connection.channel;
+    }
+
+    /**
+     * Removes Packeteer's handlers from the Player's pipeline.
+     * Safe to call multiple times, or if the Player was never injected.
+     */
+    private void unInject(Player player) {
+        UUID uuid = player.getUniqueId();
+        Channel channel = getChannel(player);
+
+        //Remove the registry entry right away. On a quit the channel is usually already closed, and its pipeline emptied.
+        //Only the entry for this Player object is removed, the Player may have already reconnected.
+        PacketeerChannelHandler current = injectedPlayers.get(uuid);
+        if(current != null && current.getPlayer() == player) {
+            injectedPlayers.remove(uuid, current);
+        }
+
+        //Pipeline changes are done on the event loop, so they're ordered with any pending injection for this channel.
+        channel.eventLoop().execute(() -> {
+            ChannelPipeline pipeline = channel.pipeline();
+            if(pipeline.get(METRICS_HANDLER) != null) {
+                pipeline.remove(METRICS_HANDLER);
+            }
+
+            if(pipeline.get(HANDLER_NAME) instanceof PacketeerChannelHandler handler) {
+                pipeline.remove(handler);
+            }
         });
     }
 
+    /**
+     * Adds Packeteer's handlers to the Player's pipeline, replacing any existing ones.
+     * Safe to call multiple times for the same Player.
+     */
     private void inject(Player player) {
-        unInject(player).addListener(future -> {
-            ChannelDuplexHandler handler = new ChannelDuplexHandler() {
-                @Override
-                public void write(ChannelHandlerContext ctx, Object obj, ChannelPromise promise) throws Exception {
-                    if(obj instanceof Packet packet) {
-                        handle(player, packet);
-                    }
-                    super.write(ctx, obj, promise);
-                }
+        Objects.requireNonNull(player, "Player cannot be null!");
 
-                @Override
-                public void channelRead(ChannelHandlerContext ctx, Object obj) throws Exception {
-                    if (obj instanceof Packet packet) {
-                        handle(player, packet);
-                    }
-                    super.channelRead(ctx, obj);
-                }
-            };
+        UUID uuid = player.getUniqueId();
+        Channel channel = getChannel(player);
+        PacketeerChannelHandler handler = new PacketeerChannelHandler(this, player);
+
+        channel.eventLoop().execute(() -> {
+            ChannelPipeline pipeline = channel.pipeline();
+
+            //The channel already closed before we got here.
+            if(!channel.isOpen() || pipeline.get("packet_handler") == null) return;
+
+            if(pipeline.get(HANDLER_NAME) != null) {
+                pipeline.remove(HANDLER_NAME);
+            }
+
+            if(pipeline.get(METRICS_HANDLER) != null) {
+                pipeline.remove(METRICS_HANDLER);
+            }
+
+            pipeline.addBefore("packet_handler", HANDLER_NAME, handler);
 
-            ChannelPipeline pipeline = ((CraftPlayer) player.getPlayer()).getHandle().connection.connection.channel.pipeline();
-            pipeline.addBefore("packet_handler", player.getName(), handler);
+            //Counts the raw bytes, so it needs to be in front of every encoder and decoder.
+            pipeline.addFirst(METRICS_HANDLER, METRICS.createByteCounter());
 
-            injectedPlayers.add(player.getUniqueId());
+            injectedPlayers.put(uuid, handler);
         });
     }
 }
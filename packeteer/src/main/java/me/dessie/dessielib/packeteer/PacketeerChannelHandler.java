@@ -0,0 +1,112 @@
+package me.dessie.dessielib.packeteer;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import net.minecraft.network.protocol.Packet;
+import org.bukkit.entity.Player;
+
+/**
+ * The handler Packeteer injects into each Player's pipeline.
+ *
+ * Packets passing through are dispatched to the registered {@link PacketeerHandler}s before being forwarded.
+ * If batch flushing is enabled, outbound flushes are held back and issued once per tick instead of once per packet.
+ */
+class PacketeerChannelHandler extends ChannelDuplexHandler {
+
+    private final Packeteer packeteer;
+    private final Player player;
+
+    private ChannelHandlerContext context;
+
+    //Only written on the event loop, read from the main thread to skip players without pending writes.
+    private volatile boolean flushPending;
+    private int pendingWrites;
+
+    PacketeerChannelHandler(Packeteer packeteer, Player player) {
+        this.packeteer = packeteer;
+        this.player = player;
+    }
+
+    /**
+     * @return The Player this handler is injected for.
+     */
+    Player getPlayer() {return player;}
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        this.context = ctx;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object obj, ChannelPromise promise) throws Exception {
+        if(obj instanceof Packet<?> packet) {
+            obj = packeteer.handle(player, packet, PacketDirection.OUTBOUND);
+
+            //The packet was cancelled, complete the write without sending anything.
+            if(obj == null) {
+                promise.trySuccess();
+                return;
+            }
+        }
+        super.write(ctx, obj, promise);
+
+        //Don't let a single tick buffer an unbounded amount of writes.
+        if(Packeteer.isBatchFlushing() && ++pendingWrites >= Packeteer.getMaxBatchedWrites()) {
+            this.flushNow(ctx);
+        }
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if(Packeteer.isBatchFlushing()) {
+            flushPending = true;
+            return;
+        }
+
+        this.flushNow(ctx);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object obj) throws Exception {
+        if (obj instanceof Packet<?> packet) {
+            obj = packeteer.handle(player, packet, PacketDirection.INBOUND);
+            if(obj == null) return;
+        }
+        super.channelRead(ctx, obj);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        Packeteer.forget(this);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        flushPending = false;
+        pendingWrites = 0;
+        Packeteer.forget(this);
+        super.channelInactive(ctx);
+    }
+
+    /**
+     * Issues the flush that has been held back since the last tick, if there is one.
+     * This can be called from any thread, the flush itself always happens on the event loop.
+     */
+    void flushBatched() {
+        ChannelHandlerContext ctx = this.context;
+        if(!flushPending || ctx == null) return;
+
+        ctx.executor().execute(() -> {
+            if(flushPending) {
+                this.flushNow(ctx);
+            }
+        });
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        flushPending = false;
+        pendingWrites = 0;
+        ctx.flush();
+    }
+}
@@ -11,4 +11,9 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface PacketeerHandler {
+
+    /**
+     * @return The thread the handler should be executed on.
+     */
+    HandlerThread thread() default HandlerThread.MAIN_BATCHED;
 }
@@ -1,5 +1,6 @@
 package me.dessie.dessielib.particleapi;
 
+import me.dessie.dessielib.particleapi.animation.ParticleEngine;
 import org.bukkit.plugin.java.JavaPlugin;
 
 /**
@@ -8,6 +9,7 @@ import org.bukkit.plugin.java.JavaPlugin;
 public class ParticleAPI {
     private static JavaPlugin plugin;
     private static boolean registered;
+    private static ParticleEngine engine;
 
     /**
      * Registers the API so that it can be used.
@@ -16,12 +18,31 @@ public class ParticleAPI {
      * @param yourPlugin Your {@link JavaPlugin} instance.
      */
     public static void register(JavaPlugin yourPlugin) {
+        register(yourPlugin, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * Registers the API so that it can be used.
+     *
+     * This method **must** be called before using the API.
+     * @param yourPlugin Your {@link JavaPlugin} instance.
+     * @param workerThreads The amount of threads used to calculate particle frames off the main thread.
+     */
+    public static void register(JavaPlugin yourPlugin, int workerThreads) {
         if(isRegistered()) {
             throw new IllegalStateException("Cannot register ParticleAPI in " + yourPlugin.getName() + ". Already registered by " + getPlugin().getName());
         }
 
         plugin = yourPlugin;
         registered = true;
+        engine = new ParticleEngine(yourPlugin, workerThreads);
+    }
+
+    /**
+     * @return The {@link ParticleEngine} that renders all running animators, or null if the API hasn't been registered.
+     */
+    public static ParticleEngine getEngine() {
+        return engine;
     }
 
     /**
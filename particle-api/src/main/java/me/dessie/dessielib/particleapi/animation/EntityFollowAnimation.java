@@ -84,10 +84,14 @@ public class EntityFollowAnimation extends ParticleAnimator {
 
     @Override
     public void run() {
+        //The animator may have been stopped from another thread.
+        Location target = this.getLocation();
+        if(target == null) return;
+
         Location location = this.getEntity().getLocation();
-        this.getLocation().setX(location.getX() + this.getOffset().getX());
-        this.getLocation().setY(location.getY() + this.getOffset().getY());
-        this.getLocation().setZ(location.getZ() + this.getOffset().getZ());
+        target.setX(location.getX() + this.getOffset().getX());
+        target.setY(location.getY() + this.getOffset().getY());
+        target.setZ(location.getZ() + this.getOffset().getZ());
         super.run();
     }
 }
@@ -1,13 +1,13 @@
 package me.dessie.dessielib.particleapi.animation;
 
 import me.dessie.dessielib.particleapi.ParticleAPI;
+import me.dessie.dessielib.particleapi.shapes.PointBuffer;
 import me.dessie.dessielib.particleapi.shapes.ShapedParticle;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.util.Vector;
 
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Animates a {@link ShapedParticle} so that it can be rendered in to the World.
@@ -17,12 +17,14 @@ import java.util.List;
  *
  * It can also be used to only animate the particle a specific number of times.
  *
+ * Running animators are rendered by the {@link ParticleEngine}, rather than each scheduling their own task.
  */
 public class ParticleAnimator extends BukkitRunnable {
 
     //Data for re-applying the Particle's draw methods.
-    private Player player;
-    private Location location;
+    //Can be cleared by stop() from any thread, so they're only read once per frame.
+    private volatile Player player;
+    private volatile Location location;
 
     private ShapedParticle particle;
 
@@ -33,9 +35,20 @@ public class ParticleAnimator extends BukkitRunnable {
     //Tracks how far along the Animator is
     private int currentLoop;
 
-    private boolean running = false;
+    private volatile boolean running = false;
     private int animationSpeed;
 
+    //Used by the ParticleEngine when the point budget is reached.
+    private int priority;
+    private int lastPoints;
+
+    //Used when the particle calculates its frames asynchronously, the next frame is calculated while the current one is displayed.
+    private PointBuffer current = new PointBuffer();
+    private PointBuffer next = new PointBuffer();
+    private CompletableFuture<Void> pending;
+
+    private final ParticleEmitter emitter = new ParticleEmitter();
+
     /**
      * @param animationSpeed How often, in ticks, to render the particles.
      */
@@ -92,12 +105,44 @@ public class ParticleAnimator extends BukkitRunnable {
      */
     public boolean isRunning() { return running; }
 
+    /**
+     * @return The priority of this animator. When the {@link ParticleEngine}'s point budget is reached, higher priorities are rendered first.
+     */
+    public int getPriority() { return priority; }
+
+    /**
+     * @return How many points were rendered in the last frame.
+     */
+    public int getLastPoints() { return lastPoints; }
+
+    /**
+     * @return How many points the next frame is expected to render.
+     */
+    int getEstimatedPoints() {
+        return this.lastPoints > 0 || this.getParticle() == null ? this.lastPoints : this.getParticle().getPoints();
+    }
+
     /**
      * @param animationSpeed Sets how often the animator will render the {@link ShapedParticle} in ticks.
      * @return The ParticleAnimator instance
      */
     public ParticleAnimator setAnimationSpeed(int animationSpeed) {
         this.animationSpeed = animationSpeed;
+
+        //Move the animator into the group for its new speed.
+        if(this.isRunning()) {
+            ParticleAPI.getEngine().remove(this);
+            ParticleAPI.getEngine().add(this);
+        }
+        return this;
+    }
+
+    /**
+     * @param priority Sets the priority of this animator. When the {@link ParticleEngine}'s point budget is reached, higher priorities are rendered first.
+     * @return The ParticleAnimator instance
+     */
+    public ParticleAnimator setPriority(int priority) {
+        this.priority = priority;
         return this;
     }
 
@@ -144,44 +189,105 @@ public class ParticleAnimator extends BukkitRunnable {
         if(ParticleAPI.getPlugin() == null) throw new IllegalStateException("ParticleAPI not registered!");
         if(this.isRunning()) throw new IllegalStateException("Already running!");
 
+        //A frame from before the animator was stopped may still be calculating, and would race with the first frame.
+        //Its result was calculated for the old location, so it's thrown away.
+        this.awaitPending();
+
         this.location = location;
         this.running = true;
-        this.runTaskTimer(ParticleAPI.getPlugin(), 0, this.getAnimationSpeed());
+        this.currentLoop = 0;
+        ParticleAPI.getEngine().add(this);
     }
 
     /**
      * Forcefully stop the Animator from rendering particles.
      */
     public void stop() {
-        this.cancel();
+        if(ParticleAPI.getEngine() != null) {
+            ParticleAPI.getEngine().remove(this);
+        }
+
         this.player = null;
         this.location = null;
         this.running = false;
+
+        //A frame may still be calculating, it's kept so the next calculation waits for it instead of racing it.
+    }
+
+    /**
+     * Stops the Animator from rendering particles.
+     * Animators are rendered by the {@link ParticleEngine}, so this is the same as {@link ParticleAnimator#stop()}.
+     */
+    @Override
+    public synchronized void cancel() {
+        this.stop();
     }
 
     @Override
     public void run() {
         if(this.getLoops() != 0 && this.currentLoop >= this.getLoops()) {
-            this.cancel();
+            this.stop();
             return;
         }
 
+        //The animator may be stopped from another thread mid frame, so the frame only uses these.
+        Location location = this.location;
+        Player player = this.player;
+        if(location == null || location.getWorld() == null) return;
+
         //Display the next Iteration.
-        display(this.getParticle().getPoints(this.location));
+        if(this.getParticle().isAsyncCompute() && ParticleAPI.getEngine() != null) {
+            displayAsync(location, player);
+        } else {
+            //Async calculation may have just been turned off, so let any pending frame finish first.
+            this.awaitPending();
+            display(this.getParticle().computePoints(location), location, player);
+        }
         this.currentLoop++;
     }
 
-    private void display(List<Vector> points) {
-        if(this.location == null || this.location.getWorld() == null) return;
+    private void displayAsync(Location location, Player player) {
+        //The first frame has nothing to overlap with, and a failed frame is calculated again.
+        if(!this.awaitPending()) {
+            this.getParticle().calculateFrame(location, this.next);
+        }
+
+        PointBuffer frame = this.next;
+        this.next = this.current;
+        this.current = frame;
+
+        //Calculate the next frame while this one is collided and shown.
+        ShapedParticle particle = this.getParticle();
+        Location snapshot = location.clone();
+        PointBuffer target = this.next;
+        this.pending = CompletableFuture.runAsync(() -> particle.calculateFrame(snapshot, target), ParticleAPI.getEngine().getWorkers());
+
+        this.getParticle().collide(location.getWorld(), frame);
+        display(frame, location, player);
+    }
+
+    /**
+     * Waits for the frame that's being calculated off the main thread, if there is one.
+     * Only one frame of a ShapedParticle can be calculated at a time, since calculating it advances its transforms.
+     *
+     * @return If the pending frame was calculated successfully.
+     */
+    private boolean awaitPending() {
+        if(this.pending == null) return false;
 
-        if(this.player != null) {
-            for(Vector point : points) {
-                this.player.spawnParticle(this.getParticle().getParticle(), point.getX(), point.getY(), point.getZ(), 1, 0, 0 ,0, this.getParticle().getParticleSpeed(), this.getParticle().getParticleOptions());
-            }
-        } else {
-            for(Vector point : points) {
-                this.location.getWorld().spawnParticle(this.getParticle().getParticle(), point.getX(), point.getY(), point.getZ(), 1, 0, 0 ,0, this.getParticle().getParticleSpeed(), this.getParticle().getParticleOptions());
-            }
+        try {
+            this.pending.join();
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            this.pending = null;
         }
     }
+
+    private void display(PointBuffer points, Location location, Player player) {
+        this.lastPoints = points.size();
+        this.emitter.emit(this.getParticle(), location, player, points);
+    }
 }
@@ -0,0 +1,150 @@
+package me.dessie.dessielib.particleapi.animation;
+
+import me.dessie.dessielib.particleapi.shapes.PointBuffer;
+import me.dessie.dessielib.particleapi.shapes.ShapedParticle;
+import net.minecraft.core.particles.ParticleOptions;
+import net.minecraft.network.protocol.game.ClientboundLevelParticlesPacket;
+import net.minecraft.server.level.ServerPlayer;
+import org.bukkit.Location;
+import org.bukkit.craftbukkit.v1_19_R1.CraftParticle;
+import org.bukkit.craftbukkit.v1_19_R1.entity.CraftPlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.util.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sends the points of a frame to the Players that can see it.
+ *
+ * The viewers are found once per frame, instead of once per point, and every point is sent as a single level particle packet
+ * that's shared by all viewers. Viewers further than {@link ShapedParticle#getLodDistance()} only receive some of the points.
+ *
+ * Distances are measured to the closest the frame's bounding sphere gets to the viewer, so large shapes aren't culled
+ * while part of them is still in range.
+ */
+final class ParticleEmitter {
+
+    //Viewers this close to the edge of the frame are never culled by the view cone, since they could be standing inside the shape.
+    private static final double CONE_BYPASS_DISTANCE = 4;
+
+    private final List<ServerPlayer> viewers = new ArrayList<>();
+    private int[] strides = new int[8];
+    private ClientboundLevelParticlesPacket[] packets = new ClientboundLevelParticlesPacket[0];
+
+    /**
+     * @param particle The ShapedParticle being rendered.
+     * @param location The location the ShapedParticle is rendered at.
+     * @param player The only Player that should see the particles, or null for all Players.
+     * @param points The points of the frame.
+     */
+    void emit(ShapedParticle particle, Location location, Player player, PointBuffer points) {
+        if(points.size() == 0) return;
+
+        int minStride = this.findViewers(particle, location, player, this.getRadius(location, points));
+        if(this.viewers.isEmpty()) return;
+
+        if(particle.getParticleOptions() != null && !particle.getParticle().getDataType().isInstance(particle.getParticleOptions())) {
+            throw new IllegalArgumentException("data should be " + particle.getParticle().getDataType() + " got " + particle.getParticleOptions().getClass());
+        }
+
+        ParticleOptions options = CraftParticle.toNMS(particle.getParticle(), particle.getParticleOptions());
+        float speed = (float) particle.getParticleSpeed();
+
+        if(this.packets.length < points.size()) {
+            this.packets = new ClientboundLevelParticlesPacket[points.size()];
+        }
+
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double[] zs = points.getZs();
+        for(int i = 0; i < points.size(); i += minStride) {
+            this.packets[i] = new ClientboundLevelParticlesPacket(options, false, xs[i], ys[i], zs[i], 0, 0, 0, speed, 1);
+        }
+
+        //Each viewer receives every nth point, depending on how far away they are.
+        for(int v = 0; v < this.viewers.size(); v++) {
+            ServerPlayer viewer = this.viewers.get(v);
+            int stride = this.strides[v];
+
+            for(int i = 0; i < points.size(); i += stride) {
+                if(this.packets[i] == null) {
+                    this.packets[i] = new ClientboundLevelParticlesPacket(options, false, xs[i], ys[i], zs[i], 0, 0, 0, speed, 1);
+                }
+
+                viewer.connection.send(this.packets[i]);
+            }
+        }
+
+        //Don't keep the packets or viewers around until the next frame.
+        Arrays.fill(this.packets, 0, points.size(), null);
+        this.viewers.clear();
+    }
+
+    /**
+     * @return The distance from the location to the point furthest from it.
+     */
+    private double getRadius(Location location, PointBuffer points) {
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double[] zs = points.getZs();
+
+        double radius = 0;
+        for(int i = 0; i < points.size(); i++) {
+            double x = xs[i] - location.getX();
+            double y = ys[i] - location.getY();
+            double z = zs[i] - location.getZ();
+            radius = Math.max(radius, x * x + y * y + z * z);
+        }
+        return Math.sqrt(radius);
+    }
+
+    /**
+     * Finds every Player that can see the ShapedParticle, and how many points to skip for each of them.
+     *
+     * @param radius The radius of the frame around the location.
+     * @return The smallest stride of all viewers.
+     */
+    private int findViewers(ShapedParticle particle, Location location, Player player, double radius) {
+        this.viewers.clear();
+
+        double maxDistance = (particle.getViewDistance() + radius) * (particle.getViewDistance() + radius);
+        double coneBypass = (CONE_BYPASS_DISTANCE + radius) * (CONE_BYPASS_DISTANCE + radius);
+        double minDot = particle.getViewCone() > 0 ? Math.cos(Math.toRadians(particle.getViewCone() / 2)) : -1;
+        int minStride = Integer.MAX_VALUE;
+
+        List<Player> candidates = player != null ? Collections.singletonList(player) : location.getWorld().getPlayers();
+        for(Player candidate : candidates) {
+            if(!candidate.getWorld().equals(location.getWorld())) continue;
+
+            Location eye = candidate.getEyeLocation();
+            double x = location.getX() - eye.getX();
+            double y = location.getY() - eye.getY();
+            double z = location.getZ() - eye.getZ();
+            double distance = x * x + y * y + z * z;
+            if(distance > maxDistance) continue;
+
+            //Only send the particles if the Player is roughly facing them.
+            if(particle.getViewCone() > 0 && distance > coneBypass) {
+                Vector direction = eye.getDirection();
+                double dot = (direction.getX() * x + direction.getY() * y + direction.getZ() * z) / Math.sqrt(distance);
+                if(dot < minDot) continue;
+            }
+
+            //The stride uses the distance to the edge of the frame, so Players standing inside a large shape see all of it.
+            double edge = Math.max(0, Math.sqrt(distance) - radius);
+            int stride = particle.getLodDistance() > 0 ? 1 + (int) (edge / particle.getLodDistance()) : 1;
+            if(this.viewers.size() == this.strides.length) {
+                this.strides = Arrays.copyOf(this.strides, this.strides.length * 2);
+            }
+
+            this.strides[this.viewers.size()] = stride;
+            this.viewers.add(((CraftPlayer) candidate).getHandle());
+            minStride = Math.min(minStride, stride);
+        }
+
+        return minStride;
+    }
+}
@@ -0,0 +1,265 @@
+package me.dessie.dessielib.particleapi.animation;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Renders every running {@link ParticleAnimator} from a single task, instead of scheduling a task for each one.
+ *
+ * Animators are grouped by their {@link ParticleAnimator#getAnimationSpeed()}, and each group is split into one slot per tick of its speed,
+ * so every tick only the animators that are due are looked at.
+ *
+ * A point budget can be set with {@link ParticleEngine#setPointBudget(int)}. When the due animators would render more points than the budget,
+ * animators with a higher {@link ParticleAnimator#getPriority()}, then animators closer to a Player, are rendered first, and the rest skip their frame.
+ *
+ * Animators can be started and stopped from any thread, the change is applied on the main thread at the start of the next tick.
+ *
+ * The engine also owns the worker pool used by {@link me.dessie.dessielib.particleapi.shapes.ShapedParticle#setAsyncCompute(boolean)}
+ * and {@link me.dessie.dessielib.particleapi.shapes.ShapedParticle#setParallelThreshold(int)}.
+ */
+public class ParticleEngine {
+
+    private final Map<Integer, AnimatorGroup> groups = new HashMap<>();
+    private final Map<ParticleAnimator, List<ParticleAnimator>> slots = new HashMap<>();
+    private final List<ParticleAnimator> due = new ArrayList<>();
+    private final Queue<Runnable> changes = new ConcurrentLinkedQueue<>();
+    private final BukkitTask task;
+    private final ForkJoinPool workers;
+
+    private long currentTick;
+    private int pointBudget;
+
+    //Metrics for the last tick.
+    private int pointsPerTick;
+    private int renderedPerTick;
+    private int shedPerTick;
+
+    /**
+     * @param plugin The plugin that registered ParticleAPI, used to schedule the engine's tick.
+     * @param workerThreads The amount of threads used to calculate frames off the main thread.
+     */
+    public ParticleEngine(JavaPlugin plugin, int workerThreads) {
+        if(workerThreads < 1) throw new IllegalArgumentException("ParticleEngine requires at least 1 worker thread.");
+
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("ParticleAPI-Worker-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        this.workers = new ForkJoinPool(workerThreads, factory, null, false);
+        this.task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1, 1);
+    }
+
+    /**
+     * @return How many {@link ParticleAnimator}s are running.
+     */
+    public int getActiveEffects() { return slots.size(); }
+
+    /**
+     * @return How many points were rendered during the last tick.
+     */
+    public int getPointsPerTick() { return pointsPerTick; }
+
+    /**
+     * @return How many {@link ParticleAnimator}s rendered a frame during the last tick.
+     */
+    public int getRenderedPerTick() { return renderedPerTick; }
+
+    /**
+     * @return How many {@link ParticleAnimator}s skipped their frame during the last tick, because the point budget was reached.
+     */
+    public int getShedPerTick() { return shedPerTick; }
+
+    /**
+     * @return The maximum number of points rendered per tick, or 0 if there is no limit.
+     */
+    public int getPointBudget() { return pointBudget; }
+
+    /**
+     * @return How many ticks the engine has run for.
+     */
+    public long getCurrentTick() { return currentTick; }
+
+    /**
+     * @return The pool that frames are calculated on off the main thread.
+     */
+    public ForkJoinPool getWorkers() { return workers; }
+
+    /**
+     * Sets the maximum number of points that can be rendered per tick.
+     * At least one {@link ParticleAnimator} is always rendered, even if it alone is over the budget.
+     *
+     * @param pointBudget The maximum number of points, or 0 for no limit.
+     * @return The ParticleEngine instance.
+     */
+    public ParticleEngine setPointBudget(int pointBudget) {
+        if(pointBudget < 0) throw new IllegalArgumentException("Point budget cannot be negative!");
+
+        this.pointBudget = pointBudget;
+        return this;
+    }
+
+    /**
+     * Starts rendering an animator, the first frame is rendered next tick.
+     * This can be called from any thread.
+     *
+     * @param animator The animator to add.
+     */
+    void add(ParticleAnimator animator) {
+        this.changes.add(() -> this.addNow(animator));
+    }
+
+    /**
+     * Stops rendering an animator.
+     * This can be called from any thread.
+     *
+     * @param animator The animator to remove.
+     */
+    void remove(ParticleAnimator animator) {
+        this.changes.add(() -> this.removeNow(animator));
+    }
+
+    private void addNow(ParticleAnimator animator) {
+        if(slots.containsKey(animator)) return;
+
+        int speed = Math.max(1, animator.getAnimationSpeed());
+        List<ParticleAnimator> slot = groups.computeIfAbsent(speed, AnimatorGroup::new).getSlot(this.currentTick + 1);
+        slot.add(animator);
+        slots.put(animator, slot);
+    }
+
+    private void removeNow(ParticleAnimator animator) {
+        List<ParticleAnimator> slot = slots.remove(animator);
+        if(slot != null) {
+            slot.remove(animator);
+        }
+    }
+
+    /**
+     * Stops the engine's tick and worker pool. Running animators are not rendered again.
+     */
+    public void shutdown() {
+        this.task.cancel();
+        this.workers.shutdown();
+        this.changes.clear();
+        this.groups.clear();
+        this.slots.clear();
+    }
+
+    private void tick() {
+        //The groups are only ever changed here, on the main thread, so they're never changed while being iterated.
+        for(Runnable change = this.changes.poll(); change != null; change = this.changes.poll()) {
+            change.run();
+        }
+
+        this.currentTick++;
+
+        //Copy the due animators, so the order can be changed by the point budget without changing the slots.
+        this.due.clear();
+        for(AnimatorGroup group : this.groups.values()) {
+            this.due.addAll(group.getSlot(this.currentTick));
+        }
+
+        int budget = this.getPointBudget();
+        if(budget > 0 && this.getEstimatedPoints() > budget) {
+            this.sortByImportance();
+        }
+
+        int points = 0;
+        int rendered = 0;
+        int shed = 0;
+        for(ParticleAnimator animator : this.due) {
+            if(!animator.isRunning()) continue;
+
+            if(budget > 0 && rendered > 0 && points + animator.getEstimatedPoints() > budget) {
+                shed++;
+                continue;
+            }
+
+            try {
+                animator.run();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+
+            points += animator.getLastPoints();
+            rendered++;
+        }
+
+        this.due.clear();
+        this.pointsPerTick = points;
+        this.renderedPerTick = rendered;
+        this.shedPerTick = shed;
+    }
+
+    private int getEstimatedPoints() {
+        int points = 0;
+        for(ParticleAnimator animator : this.due) {
+            points += animator.getEstimatedPoints();
+        }
+        return points;
+    }
+
+    private void sortByImportance() {
+        //The distances are only calculated once per animator, instead of on every comparison.
+        Map<ParticleAnimator, Double> distances = new IdentityHashMap<>();
+        for(ParticleAnimator animator : this.due) {
+            distances.put(animator, this.getDistanceSquared(animator));
+        }
+
+        this.due.sort(Comparator.comparingInt(ParticleAnimator::getPriority).reversed()
+                .thenComparingDouble(distances::get));
+    }
+
+    /**
+     * @return The squared distance from the animator to the closest Player that can see it.
+     */
+    private double getDistanceSquared(ParticleAnimator animator) {
+        Location location = animator.getLocation();
+        if(location == null || location.getWorld() == null) return Double.MAX_VALUE;
+
+        Player viewer = animator.getPlayer();
+        if(viewer != null) {
+            return viewer.getWorld().equals(location.getWorld()) ? viewer.getLocation().distanceSquared(location) : Double.MAX_VALUE;
+        }
+
+        double closest = Double.MAX_VALUE;
+        for(Player player : location.getWorld().getPlayers()) {
+            closest = Math.min(closest, player.getLocation().distanceSquared(location));
+        }
+        return closest;
+    }
+
+    /**
+     * All animators with the same animation speed, split into one slot for each tick of the speed.
+     */
+    private static class AnimatorGroup {
+        private final List<List<ParticleAnimator>> slots;
+
+        AnimatorGroup(int speed) {
+            this.slots = new ArrayList<>(speed);
+            for(int i = 0; i < speed; i++) {
+                this.slots.add(new ArrayList<>());
+            }
+        }
+
+        List<ParticleAnimator> getSlot(long tick) {
+            return this.slots.get((int) (tick % this.slots.size()));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package me.dessie.dessielib.particleapi.collison;
 
+import me.dessie.dessielib.particleapi.shapes.PointBuffer;
 import me.dessie.dessielib.particleapi.shapes.ShapedParticle;
 import org.bukkit.Material;
 import org.bukkit.World;
@@ -30,8 +31,16 @@ public class BlockCollider extends ParticleCollider<Block> {
 
     @Override
     protected void attemptCollide(ShapedParticle particle, World world, List<Vector> points) {
-        for(Vector point : points) {
-            Block block = world.getBlockAt((int) point.getX(), (int) point.getY(), (int) point.getZ());
+        this.attemptCollide(particle, world, PointBuffer.of(points));
+    }
+
+    @Override
+    protected void attemptCollide(ShapedParticle particle, World world, PointBuffer points) {
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double[] zs = points.getZs();
+        for(int i = 0; i < points.size(); i++) {
+            Block block = world.getBlockAt((int) xs[i], (int) ys[i], (int) zs[i]);
             if(block.getType() == Material.AIR || block.getType() == Material.CAVE_AIR) continue;
 
             this.getCollider().accept(block);
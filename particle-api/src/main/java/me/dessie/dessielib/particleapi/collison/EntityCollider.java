@@ -1,12 +1,12 @@
 package me.dessie.dessielib.particleapi.collison;
 
+import me.dessie.dessielib.particleapi.shapes.PointBuffer;
 import me.dessie.dessielib.particleapi.shapes.ShapedParticle;
 import org.bukkit.Chunk;
 import org.bukkit.World;
 import org.bukkit.entity.Entity;
 import org.bukkit.util.Vector;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.function.Consumer;
 
@@ -31,20 +31,37 @@ public class EntityCollider extends ParticleCollider<Entity> {
 
     @Override
     protected void attemptCollide(ShapedParticle particle, World world, List<Vector> points) {
+        this.attemptCollide(particle, world, PointBuffer.of(points));
+    }
+
+    @Override
+    protected void attemptCollide(ShapedParticle particle, World world, PointBuffer points) {
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double[] zs = points.getZs();
+
+        //Neighbouring points are usually in the same Chunk, so only look it up when it changes.
+        Chunk chunk = null;
+        Entity[] entities = new Entity[0];
+
         //For all points, attempt to find any Entity that collides with this point.
-        for(Vector point : points) {
+        for(int i = 0; i < points.size(); i++) {
             //So first we can get the Chunk that this point is in
-            Chunk chunk = world.getChunkAt((int) point.getX() >> 4, (int) point.getZ() >> 4);
-            if(!chunk.isLoaded()) continue;
+            int chunkX = (int) xs[i] >> 4;
+            int chunkZ = (int) zs[i] >> 4;
+            if(chunk == null || chunk.getX() != chunkX || chunk.getZ() != chunkZ) {
+                chunk = world.getChunkAt(chunkX, chunkZ);
+                entities = chunk.isLoaded() ? chunk.getEntities() : new Entity[0];
+            }
 
             //Look through all the Chunk's entities & attempt a collision
             //Provided that the entity is valid for a collision attempt.
-            Arrays.stream(chunk.getEntities())
-                    .filter(entity -> this.canCollide(entity) && entity.getBoundingBox().contains(point))
-                    .forEach(entity -> {
-                        this.getCollider().accept(entity);
-                        this.add(entity);
-                    });
+            for(Entity entity : entities) {
+                if(this.canCollide(entity) && entity.getBoundingBox().contains(xs[i], ys[i], zs[i])) {
+                    this.getCollider().accept(entity);
+                    this.add(entity);
+                }
+            }
         }
     }
 }
@@ -1,6 +1,7 @@
 package me.dessie.dessielib.particleapi.collison;
 
 import me.dessie.dessielib.particleapi.animation.ParticleAnimator;
+import me.dessie.dessielib.particleapi.shapes.PointBuffer;
 import me.dessie.dessielib.particleapi.shapes.ShapedParticle;
 import org.bukkit.World;
 import org.bukkit.util.Vector;
@@ -118,6 +119,20 @@ public abstract class ParticleCollider<T> {
      */
     protected abstract void attemptCollide(ShapedParticle particle, World world, List<Vector> points);
 
+    /**
+     * Attempts collisions for the points in a {@link PointBuffer}.
+     *
+     * By default, the points are copied into {@link Vector}s and passed to {@link ParticleCollider#attemptCollide(ShapedParticle, World, List)}.
+     * Override this method to check collisions without creating any Vectors.
+     *
+     * @param particle The {@link ShapedParticle} that was rendered and could collide with something.
+     * @param world The world that the ShapedParticle was rendered in.
+     * @param points The particle locations within the rendered ShapedParticle.
+     */
+    protected void attemptCollide(ShapedParticle particle, World world, PointBuffer points) {
+        this.attemptCollide(particle, world, points.toVectors());
+    }
+
     /**
      * Marks an object as collided with.
      * This should always be called when the object has been collidied with in your {@link ParticleCollider#attemptCollide(ShapedParticle, World, List)}
@@ -177,8 +192,33 @@ public abstract class ParticleCollider<T> {
      */
     public void startCollide(ShapedParticle particle, World world, List<Vector> points) {
         this.doDelayCalculate(particle);
-        this.frameCollisions = new ArrayList<>();
+        this.resetFrameCollisions();
 
         this.attemptCollide(particle, world, points);
     }
+
+    /**
+     * Starts a collision for a Particle, using the points in a {@link PointBuffer}.
+     * This will be called on every animation from of a ShapedParticle.
+     *
+     * @see ParticleAnimator#getAnimationSpeed() To change how often collisions occur.
+     *
+     * @param particle The ShapedParticle to check collisions for
+     * @param world The World to check collisions in
+     * @param points The points on the ShapedParticle to check collisions for.
+     */
+    public void startCollide(ShapedParticle particle, World world, PointBuffer points) {
+        this.doDelayCalculate(particle);
+        this.resetFrameCollisions();
+
+        this.attemptCollide(particle, world, points);
+    }
+
+    private void resetFrameCollisions() {
+        if(this.frameCollisions == null) {
+            this.frameCollisions = new ArrayList<>();
+        } else {
+            this.frameCollisions.clear();
+        }
+    }
 }
@@ -2,7 +2,8 @@ package me.dessie.dessielib.particleapi.shapes;
 
 import me.dessie.dessielib.particleapi.wrapper.ParticleData;
 import org.bukkit.Particle;
-import org.bukkit.util.Vector;
+
+import java.util.List;
 
 /**
  * Draws particles as a circle, all circles will be drawn parallel to the ground by default.
@@ -24,12 +25,14 @@ public class CircleParticle extends ShapedParticle {
      * @param radius The radius of the circle
      */
     public CircleParticle(ParticleData particle, int points, int radius) {
-        super(particle, points, (((location, step) -> {
+        super(particle, points, (((location, step, buffer) -> {
             double cos = radius * Math.cos(Math.PI * 2 * (step * ((double) 360 / points)) / 360);
             double sin = radius * Math.sin(Math.PI * 2 * (step * ((double) 360 / points)) / 360);
 
-            return new Vector(location.getX() + cos, location.getY(), location.getZ() + sin);
+            buffer.add(location.getX() + cos, location.getY(), location.getZ() + sin);
         })));
+
+        this.setShapeKey(List.of(CircleParticle.class, points, radius));
     }
 
     /**
@@ -3,7 +3,8 @@ package me.dessie.dessielib.particleapi.shapes;
 
 import me.dessie.dessielib.particleapi.wrapper.ParticleData;
 import org.bukkit.Particle;
-import org.bukkit.util.Vector;
+
+import java.util.List;
 
 /**
  * Draws a single particle at the specified Location.
@@ -20,6 +21,8 @@ public class DotParticle extends ShapedParticle {
      * @param particle The {@link ParticleData} to render.
      */
     public DotParticle(ParticleData particle) {
-        super(particle, 1, ((location, step) -> new Vector(location.getX(), location.getY(), location.getZ())));
+        super(particle, 1, ((location, step, buffer) -> buffer.add(location.getX(), location.getY(), location.getZ())));
+
+        this.setShapeKey(List.of(DotParticle.class));
     }
 }
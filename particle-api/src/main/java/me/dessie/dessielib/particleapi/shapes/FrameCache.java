@@ -0,0 +1,108 @@
+package me.dessie.dessielib.particleapi.shapes;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds the pre-calculated frames of every {@link ShapedParticle} that uses {@link ShapedParticle#setFrameCached(boolean)}.
+ *
+ * ShapedParticles with the same {@link ShapedParticle#getFrameCacheKey()} share the same frames.
+ * Once the cache uses more than {@link FrameCache#getMaxBytes()}, the least recently used frames are removed,
+ * and will be calculated again the next time they're needed.
+ */
+public final class FrameCache {
+
+    private static final Map<Object, FrameTable> tables = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static long maxBytes = 16L * 1024 * 1024;
+    private static int maxFrames = 1200;
+    private static long usedBytes;
+
+    private FrameCache() {}
+
+    /**
+     * @return The maximum amount of memory, in bytes, that the cached frames can use.
+     */
+    public static synchronized long getMaxBytes() { return maxBytes; }
+
+    /**
+     * @return The maximum number of frames in a cycle. ShapedParticles with longer cycles are not cached.
+     */
+    public static synchronized int getMaxFrames() { return maxFrames; }
+
+    /**
+     * @return Roughly how much memory, in bytes, the cached frames are using.
+     */
+    public static synchronized long getUsedBytes() { return usedBytes; }
+
+    /**
+     * @return How many frame cycles are cached.
+     */
+    public static synchronized int size() { return tables.size(); }
+
+    /**
+     * Sets the maximum amount of memory that the cached frames can use.
+     * If the cache is already using more, the least recently used frames are removed.
+     *
+     * @param maxBytes The maximum amount of memory, in bytes.
+     */
+    public static synchronized void setMaxBytes(long maxBytes) {
+        if(maxBytes < 0) throw new IllegalArgumentException("Max bytes cannot be negative!");
+
+        FrameCache.maxBytes = maxBytes;
+        evict();
+    }
+
+    /**
+     * Sets the maximum number of frames in a cycle. ShapedParticles with longer cycles are calculated every frame instead.
+     *
+     * @param maxFrames The maximum number of frames.
+     */
+    public static synchronized void setMaxFrames(int maxFrames) {
+        if(maxFrames < 1) throw new IllegalArgumentException("Max frames must be at least 1!");
+
+        FrameCache.maxFrames = maxFrames;
+    }
+
+    /**
+     * Removes all cached frames.
+     */
+    public static synchronized void clear() {
+        tables.clear();
+        usedBytes = 0;
+    }
+
+    static synchronized FrameTable get(Object key) {
+        return tables.get(key);
+    }
+
+    /**
+     * @return If the table was cached, a table larger than the max bytes is never cached.
+     */
+    static synchronized boolean put(Object key, FrameTable table) {
+        if(table.getBytes() > maxBytes) return false;
+
+        remove(key);
+        tables.put(key, table);
+        usedBytes += table.getBytes();
+        evict();
+        return true;
+    }
+
+    static synchronized void remove(Object key) {
+        FrameTable removed = tables.remove(key);
+        if(removed != null) {
+            usedBytes -= removed.getBytes();
+        }
+    }
+
+    private static void evict() {
+        //The map is in access order, so the first entries are the least recently used.
+        Iterator<FrameTable> iterator = tables.values().iterator();
+        while(usedBytes > maxBytes && iterator.hasNext()) {
+            usedBytes -= iterator.next().getBytes();
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package me.dessie.dessielib.particleapi.shapes;
+
+import org.bukkit.Location;
+
+import java.util.Arrays;
+
+/**
+ * One full cycle of pre-calculated frames for a {@link ShapedParticle}, stored relative to the origin.
+ *
+ * Every frame is stored back to back in the same arrays, and the points of frame n are between offsets[n] and offsets[n + 1].
+ */
+final class FrameTable {
+
+    private final int[] offsets;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+
+    /**
+     * @param points The points of every frame, back to back.
+     * @param offsets The index of the first point of each frame, followed by the total number of points.
+     */
+    FrameTable(PointBuffer points, int[] offsets) {
+        this.offsets = offsets;
+        this.xs = Arrays.copyOf(points.getXs(), points.size());
+        this.ys = Arrays.copyOf(points.getYs(), points.size());
+        this.zs = Arrays.copyOf(points.getZs(), points.size());
+    }
+
+    /**
+     * @return How many frames are in the cycle.
+     */
+    int getFrames() { return offsets.length - 1; }
+
+    /**
+     * @return Roughly how much memory, in bytes, the table uses.
+     */
+    long getBytes() { return xs.length * 24L + offsets.length * 4L; }
+
+    /**
+     * Adds the points of a frame to a buffer, translated to a Location.
+     *
+     * @param frame The frame to add.
+     * @param location The Location to translate the points to.
+     * @param points The buffer to add the points to.
+     */
+    void copyTo(int frame, Location location, PointBuffer points) {
+        int from = offsets[frame];
+        int to = offsets[frame + 1];
+        points.ensureCapacity(points.size() + to - from);
+
+        for(int i = from; i < to; i++) {
+            points.add(xs[i] + location.getX(), ys[i] + location.getY(), zs[i] + location.getZ());
+        }
+    }
+}
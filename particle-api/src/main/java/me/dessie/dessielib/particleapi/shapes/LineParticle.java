@@ -44,12 +44,12 @@ public class LineParticle extends ShapedParticle {
      * @param toVector The end vector for the line.
      */
     public LineParticle(ParticleData particle, int points, Vector toVector) {
-        super(particle, points, (((location, step) -> {
+        super(particle, points, (((location, step, buffer) -> {
             double slopeX = toVector.getX() - location.getX();
             double slopeY = toVector.getY() - location.getY();
             double slopeZ = toVector.getZ() - location.getZ();
 
-            return new Vector(location.getX() + (slopeX / points * step),
+            buffer.add(location.getX() + (slopeX / points * step),
                     location.getY() + (slopeY / points * step),
                     location.getZ() + (slopeZ / points * step));
         })));
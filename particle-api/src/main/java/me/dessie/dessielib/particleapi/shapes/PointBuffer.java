@@ -0,0 +1,241 @@
+package me.dessie.dessielib.particleapi.shapes;
+
+import org.bukkit.util.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Holds the points of a {@link ShapedParticle} as primitive x, y and z arrays.
+ *
+ * A buffer is reused for every frame, so calculating a frame doesn't allocate a {@link Vector} per point.
+ * Only the first {@link PointBuffer#size()} values of each array are points, the rest is spare capacity.
+ */
+public final class PointBuffer {
+
+    private double[] xs;
+    private double[] ys;
+    private double[] zs;
+    private int size;
+
+    /**
+     * Creates an empty PointBuffer.
+     */
+    public PointBuffer() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty PointBuffer.
+     *
+     * @param capacity How many points the buffer can hold before it needs to grow.
+     */
+    public PointBuffer(int capacity) {
+        if(capacity < 0) throw new IllegalArgumentException("Capacity cannot be negative!");
+
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+        this.zs = new double[capacity];
+    }
+
+    /**
+     * Creates a PointBuffer with the same points as a List of {@link Vector}s.
+     *
+     * @param points The points to copy.
+     * @return The new PointBuffer.
+     */
+    public static PointBuffer of(List<Vector> points) {
+        PointBuffer buffer = new PointBuffer(points.size());
+        for(Vector point : points) {
+            buffer.add(point.getX(), point.getY(), point.getZ());
+        }
+        return buffer;
+    }
+
+    /**
+     * @return How many points are in the buffer.
+     */
+    public int size() { return size; }
+
+    /**
+     * @return The x coordinates of each point. Only the first {@link PointBuffer#size()} values are points.
+     */
+    public double[] getXs() { return xs; }
+
+    /**
+     * @return The y coordinates of each point. Only the first {@link PointBuffer#size()} values are points.
+     */
+    public double[] getYs() { return ys; }
+
+    /**
+     * @return The z coordinates of each point. Only the first {@link PointBuffer#size()} values are points.
+     */
+    public double[] getZs() { return zs; }
+
+    /**
+     * @param index The index of the point.
+     * @return The x coordinate of the point.
+     */
+    public double getX(int index) { return xs[Objects.checkIndex(index, size)]; }
+
+    /**
+     * @param index The index of the point.
+     * @return The y coordinate of the point.
+     */
+    public double getY(int index) { return ys[Objects.checkIndex(index, size)]; }
+
+    /**
+     * @param index The index of the point.
+     * @return The z coordinate of the point.
+     */
+    public double getZ(int index) { return zs[Objects.checkIndex(index, size)]; }
+
+    /**
+     * Removes every point, the capacity is kept so the buffer can be refilled without allocating.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Makes sure the buffer can hold a number of points without growing.
+     *
+     * @param capacity How many points the buffer should be able to hold.
+     */
+    public void ensureCapacity(int capacity) {
+        if(capacity <= xs.length) return;
+
+        int newCapacity = Math.max(capacity, xs.length * 2);
+        this.xs = Arrays.copyOf(xs, newCapacity);
+        this.ys = Arrays.copyOf(ys, newCapacity);
+        this.zs = Arrays.copyOf(zs, newCapacity);
+    }
+
+    /**
+     * Adds a point to the end of the buffer.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param z The z coordinate.
+     */
+    public void add(double x, double y, double z) {
+        this.ensureCapacity(size + 1);
+
+        xs[size] = x;
+        ys[size] = y;
+        zs[size] = z;
+        size++;
+    }
+
+    /**
+     * Replaces a point in the buffer.
+     *
+     * @param index The index of the point.
+     * @param x The new x coordinate.
+     * @param y The new y coordinate.
+     * @param z The new z coordinate.
+     */
+    public void set(int index, double x, double y, double z) {
+        Objects.checkIndex(index, size);
+
+        xs[index] = x;
+        ys[index] = y;
+        zs[index] = z;
+    }
+
+    /**
+     * Adds a range of points from another buffer to the end of this buffer.
+     * The other buffer may be this buffer.
+     *
+     * @param other The buffer to copy from.
+     * @param from The index of the first point to copy, inclusive.
+     * @param to The index of the last point to copy, exclusive.
+     */
+    public void addAll(PointBuffer other, int from, int to) {
+        Objects.checkFromToIndex(from, to, other.size());
+
+        int length = to - from;
+        this.ensureCapacity(size + length);
+
+        System.arraycopy(other.xs, from, xs, size, length);
+        System.arraycopy(other.ys, from, ys, size, length);
+        System.arraycopy(other.zs, from, zs, size, length);
+        size += length;
+    }
+
+    /**
+     * Replaces every point in this buffer with the points of another buffer.
+     *
+     * @param other The buffer to copy.
+     */
+    public void copyFrom(PointBuffer other) {
+        if(other == this) return;
+
+        this.clear();
+        this.addAll(other, 0, other.size());
+    }
+
+    /**
+     * @param index The index of the point.
+     * @return A new {@link Vector} of the point.
+     */
+    public Vector getVector(int index) {
+        Objects.checkIndex(index, size);
+        return new Vector(xs[index], ys[index], zs[index]);
+    }
+
+    /**
+     * @return A new List with a {@link Vector} for each point.
+     */
+    public List<Vector> toVectors() {
+        return this.toVectors(0, size);
+    }
+
+    /**
+     * @param from The index of the first point, inclusive.
+     * @param to The index of the last point, exclusive.
+     * @return A new List with a {@link Vector} for each point in the range.
+     */
+    public List<Vector> toVectors(int from, int to) {
+        Objects.checkFromToIndex(from, to, size);
+
+        List<Vector> vectors = new ArrayList<>(to - from);
+        for(int i = from; i < to; i++) {
+            vectors.add(new Vector(xs[i], ys[i], zs[i]));
+        }
+        return vectors;
+    }
+
+    /**
+     * Replaces a range of points with the values of a List of {@link Vector}s.
+     *
+     * @param from The index of the first point to replace.
+     * @param vectors The new points.
+     */
+    public void setAll(int from, List<Vector> vectors) {
+        Objects.checkFromIndexSize(from, vectors.size(), size);
+
+        for(int i = 0; i < vectors.size(); i++) {
+            Vector vector = vectors.get(i);
+            xs[from + i] = vector.getX();
+            ys[from + i] = vector.getY();
+            zs[from + i] = vector.getZ();
+        }
+    }
+
+    /**
+     * Copies every point into an existing List of {@link Vector}s, modifying the Vectors in place.
+     * The List must have the same number of Vectors as this buffer has points.
+     *
+     * @param vectors The Vectors to modify.
+     */
+    public void writeTo(List<Vector> vectors) {
+        if(vectors.size() != size) throw new IllegalArgumentException("Expected " + size + " vectors, but got " + vectors.size());
+
+        for(int i = 0; i < size; i++) {
+            vectors.get(i).setX(xs[i]).setY(ys[i]).setZ(zs[i]);
+        }
+    }
+}
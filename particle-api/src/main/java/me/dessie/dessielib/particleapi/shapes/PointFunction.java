@@ -0,0 +1,19 @@
+package me.dessie.dessielib.particleapi.shapes;
+
+import org.bukkit.Location;
+
+/**
+ * Defines how a {@link ShapedParticle} is shaped, without creating a {@link org.bukkit.util.Vector} for each point.
+ */
+@FunctionalInterface
+public interface PointFunction {
+
+    /**
+     * Calculates the point of a ShapedParticle at a step, and adds it to the buffer using {@link PointBuffer#add(double, double, double)}.
+     *
+     * @param location The location the ShapedParticle is rendered at.
+     * @param step The step, or index, of the point.
+     * @param points The buffer to add the point to.
+     */
+    void apply(Location location, int step, PointBuffer points);
+}
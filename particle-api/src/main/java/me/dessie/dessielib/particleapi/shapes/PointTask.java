@@ -0,0 +1,65 @@
+package me.dessie.dessielib.particleapi.shapes;
+
+import org.bukkit.Location;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Applies a {@link PointFunction} to a range of steps, splitting large ranges across a {@link ForkJoinPool}.
+ * Each range fills its own {@link PointBuffer}, which are joined back together in step order.
+ */
+final class PointTask extends RecursiveTask<PointBuffer> {
+
+    //Ranges smaller than this aren't worth splitting.
+    private static final int MIN_CHUNK = 256;
+
+    private final PointFunction function;
+    private final Location location;
+    private final int from;
+    private final int to;
+    private final int chunk;
+
+    private PointTask(PointFunction function, Location location, int from, int to, int chunk) {
+        this.function = function;
+        this.location = location;
+        this.from = from;
+        this.to = to;
+        this.chunk = chunk;
+    }
+
+    /**
+     * Applies a PointFunction to every step in parallel, and adds the points to a buffer.
+     *
+     * @param pool The pool to calculate in.
+     * @param function The PointFunction to apply.
+     * @param location The location the ShapedParticle is rendered at.
+     * @param steps How many steps to apply the function to.
+     * @param points The buffer to add the points to.
+     */
+    static void calculate(ForkJoinPool pool, PointFunction function, Location location, int steps, PointBuffer points) {
+        int chunk = Math.max(MIN_CHUNK, steps / (pool.getParallelism() * 4));
+        PointBuffer calculated = pool.invoke(new PointTask(function, location, 0, steps, chunk));
+        points.addAll(calculated, 0, calculated.size());
+    }
+
+    @Override
+    protected PointBuffer compute() {
+        if(to - from <= chunk) {
+            PointBuffer points = new PointBuffer(to - from);
+            for(int i = from; i < to; i++) {
+                function.apply(location, i, points);
+            }
+            return points;
+        }
+
+        int middle = (from + to) >>> 1;
+        PointTask left = new PointTask(function, location, from, middle, chunk);
+        left.fork();
+
+        PointBuffer right = new PointTask(function, location, middle, to, chunk).compute();
+        PointBuffer points = left.join();
+        points.addAll(right, 0, right.size());
+        return points;
+    }
+}
@@ -2,7 +2,8 @@ package me.dessie.dessielib.particleapi.shapes;
 
 import me.dessie.dessielib.particleapi.wrapper.ParticleData;
 import org.bukkit.Particle;
-import org.bukkit.util.Vector;
+
+import java.util.List;
 
 /**
  * Draws particle as a Square or Rectangle.
@@ -26,7 +27,7 @@ public class RectangleParticle extends ShapedParticle {
      * @param height The height, in blocks, of the rectangle.
      */
     public RectangleParticle(ParticleData particle, int points, double width, double height) {
-        super(particle, points, ((location, step) -> {
+        super(particle, points, ((location, step, buffer) -> {
 
             //Make sure all particles are the same distance apart by using width/height proportions.
             double widthProportion = (width + height) / width;
@@ -42,14 +43,16 @@ public class RectangleParticle extends ShapedParticle {
 
             //Draw them depending on which line of the Rectangle we're drawing.
             if(step < pointsPerWidth) {
-                return new Vector(location.getX() + widthStep, location.getY(), location.getZ());
+                buffer.add(location.getX() + widthStep, location.getY(), location.getZ());
             } else if(step < pointsPerWidth + pointsPerHeight) {
-                return new Vector(location.getX() + width, location.getY() + heightStep, location.getZ());
+                buffer.add(location.getX() + width, location.getY() + heightStep, location.getZ());
             } else if(step < pointsPerHeight + pointsPerWidth * 2) {
-                return new Vector(location.getX() + width - widthStep, location.getY() + height, location.getZ());
+                buffer.add(location.getX() + width - widthStep, location.getY() + height, location.getZ());
             } else {
-                return new Vector(location.getX(), location.getY() + height - heightStep, location.getZ());
+                buffer.add(location.getX(), location.getY() + height - heightStep, location.getZ());
             }
         }));
+
+        this.setShapeKey(List.of(RectangleParticle.class, points, width, height));
     }
 }
@@ -1,5 +1,6 @@
 package me.dessie.dessielib.particleapi.shapes;
 
+import me.dessie.dessielib.particleapi.ParticleAPI;
 import me.dessie.dessielib.particleapi.animation.ParticleAnimator;
 import me.dessie.dessielib.particleapi.collison.ParticleCollider;
 import me.dessie.dessielib.particleapi.transform.ParticleTransform;
@@ -10,6 +11,7 @@ import me.dessie.dessielib.particleapi.transform.transformations.ParticleRotate;
 import me.dessie.dessielib.particleapi.wrapper.ParticleData;
 import org.bukkit.Location;
 import org.bukkit.Particle;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.util.Vector;
 
@@ -27,11 +29,33 @@ public class ShapedParticle {
 
     private final int points;
     private BiFunction<Location, Integer, Vector> shapeFunction;
+    private PointFunction pointFunction;
     private double particleSpeed;
     private final List<ParticleTransform> transforms = new ArrayList<>();
     private final List<ParticleCollider<?>> colliders = new ArrayList<>();
     private ParticleAnimator animator;
 
+    //Reused for every frame, so calculating the points doesn't allocate.
+    private final PointBuffer frame = new PointBuffer();
+    private final PointBuffer base = new PointBuffer();
+
+    //Pre-calculated frames, see setFrameCached.
+    private final Object identityKey = new Object();
+    private boolean frameCached;
+    private Object frameCacheKey;
+    private Object shapeKey;
+    private boolean canBake = true;
+    private int cachedFrame;
+
+    //Off-thread calculation, see setAsyncCompute and setParallelThreshold.
+    private boolean asyncCompute;
+    private int parallelThreshold;
+
+    //Which Players are sent the particles, see setViewDistance, setViewCone and setLodDistance.
+    private double viewDistance = 32;
+    private double viewCone;
+    private double lodDistance;
+
     /**
      * @param particle The {@link Particle} to render.
      * @param points The number of points to render in the ShapedParticle.
@@ -57,6 +81,31 @@ public class ShapedParticle {
         this.setAnimator(new ParticleAnimator(5, 1));
     }
 
+    /**
+     * @param particle The {@link Particle} to render.
+     * @param points The number of points to render in the ShapedParticle.
+     * @param pointFunction Defines how the ShapedParticle is rendered. Takes in an initial location, a "step" value and a {@link PointBuffer}.
+     *                      Should add the position for the particle at the specific step to the buffer.
+     */
+    public ShapedParticle(Particle particle, int points, PointFunction pointFunction) {
+        this(new ParticleData(particle, null), points, pointFunction);
+    }
+
+    /**
+     * @param data The {@link ParticleData} to render.
+     * @param points The number of points to render in the ShapedParticle.
+     * @param pointFunction Defines how the ShapedParticle is rendered. Takes in an initial location, a "step" value and a {@link PointBuffer}.
+     *                      Should add the position for the particle at the specific step to the buffer.
+     */
+    public ShapedParticle(ParticleData data, int points, PointFunction pointFunction) {
+        this.setParticle(data);
+        this.setPointFunction(pointFunction);
+        this.points = points;
+        this.particleSpeed = 0;
+
+        this.setAnimator(new ParticleAnimator(5, 1));
+    }
+
     /**
      * @return The {@link Particle} that will be rendered.
      */
@@ -67,6 +116,55 @@ public class ShapedParticle {
      */
     public BiFunction<Location, Integer, Vector> getShapeFunction() { return shapeFunction; }
 
+    /**
+     * @return The {@link PointFunction} that controls how this ShapedParticle is shaped.
+     */
+    public PointFunction getPointFunction() { return pointFunction; }
+
+    /**
+     * @return If the frames of this ShapedParticle are pre-calculated and stored in the {@link FrameCache}.
+     */
+    public boolean isFrameCached() { return frameCached; }
+
+    /**
+     * @return If the next frame is calculated on the {@link me.dessie.dessielib.particleapi.animation.ParticleEngine}'s workers while the current frame is rendered.
+     */
+    public boolean isAsyncCompute() { return asyncCompute; }
+
+    /**
+     * @return How many points the ShapedParticle needs before its points are calculated in parallel, or 0 if they never are.
+     */
+    public int getParallelThreshold() { return parallelThreshold; }
+
+    /**
+     * @return How far away, in blocks, a Player can be and still be sent the particles.
+     */
+    public double getViewDistance() { return viewDistance; }
+
+    /**
+     * @return The angle, in degrees, of the cone a Player needs to be facing the ShapedParticle within to be sent the particles, or 0 if it isn't used.
+     */
+    public double getViewCone() { return viewCone; }
+
+    /**
+     * @return Every how many blocks of distance the points sent to a Player are thinned out, or 0 if they never are.
+     */
+    public double getLodDistance() { return lodDistance; }
+
+    /**
+     * Returns the key this ShapedParticle's frames are cached with. ShapedParticles with the same key share their frames.
+     *
+     * If no key has been set, built-in shapes without any {@link ParticleTransform}s share frames with the same shape parameters,
+     * otherwise the frames are not shared.
+     *
+     * @return The key used in the {@link FrameCache}.
+     */
+    public Object getFrameCacheKey() {
+        if(this.frameCacheKey != null) return this.frameCacheKey;
+        if(this.shapeKey != null && this.getTransforms().isEmpty()) return this.shapeKey;
+        return this.identityKey;
+    }
+
     /**
      * @return How many points, or steps, are used to create the Shaped Particle.
      */
@@ -121,9 +219,125 @@ public class ShapedParticle {
         Objects.requireNonNull(transform, "Cannot add a null transform!");
 
         this.getTransforms().add(transform);
+        this.invalidateFrames();
+        return this;
+    }
+
+    /**
+     * Pre-calculates one full cycle of this ShapedParticle's frames the first time it's rendered, relative to the origin.
+     * Every frame after that only has to be moved to the render location, instead of being calculated again.
+     *
+     * This should only be used if the shape and all {@link ParticleTransform}s are the same no matter where they're rendered,
+     * and always repeat. Cycles longer than {@link FrameCache#getMaxFrames()} are calculated every frame instead.
+     * {@link ParticleCollider}s are still applied to every frame.
+     *
+     * @param frameCached If the frames should be pre-calculated.
+     * @return The ShapedParticle instance.
+     */
+    public ShapedParticle setFrameCached(boolean frameCached) {
+        this.frameCached = frameCached;
+        this.invalidateFrames();
+        return this;
+    }
+
+    /**
+     * Calculates the next frame on the {@link me.dessie.dessielib.particleapi.animation.ParticleEngine}'s workers while the current frame is rendered.
+     * Only spawning the particles and the {@link ParticleCollider}s are done on the main thread.
+     *
+     * The point function and {@link ParticleTransform}s must be safe to call off the main thread,
+     * and each frame is calculated with the location the previous frame was rendered at.
+     *
+     * @param asyncCompute If the frames should be calculated asynchronously.
+     * @return The ShapedParticle instance.
+     */
+    public ShapedParticle setAsyncCompute(boolean asyncCompute) {
+        this.asyncCompute = asyncCompute;
+        return this;
+    }
+
+    /**
+     * Splits the point function across the {@link me.dessie.dessielib.particleapi.animation.ParticleEngine}'s workers
+     * when the ShapedParticle has at least this many points. The point function must be safe to call from multiple threads.
+     *
+     * @param parallelThreshold The minimum number of points, or 0 to never calculate in parallel.
+     * @return The ShapedParticle instance.
+     */
+    public ShapedParticle setParallelThreshold(int parallelThreshold) {
+        if(parallelThreshold < 0) throw new IllegalArgumentException("Parallel threshold cannot be negative!");
+
+        this.parallelThreshold = parallelThreshold;
+        return this;
+    }
+
+    /**
+     * Sets how far away a Player can be from the render location and still be sent the particles.
+     * The distance is measured from the edge of the frame, so it's widened by how far the furthest point is from the render location.
+     * The client doesn't display particles further than 32 blocks away, which is the default.
+     *
+     * @param viewDistance The distance, in blocks.
+     * @return The ShapedParticle instance.
+     */
+    public ShapedParticle setViewDistance(double viewDistance) {
+        if(viewDistance < 0) throw new IllegalArgumentException("View distance cannot be negative!");
+
+        this.viewDistance = viewDistance;
+        return this;
+    }
+
+    /**
+     * Only sends the particles to Players that are facing the render location, within a cone of this angle.
+     * Players that are very close are always sent the particles.
+     *
+     * @param viewCone The angle of the cone, in degrees, or 0 to send the particles no matter where Players are facing.
+     * @return The ShapedParticle instance.
+     */
+    public ShapedParticle setViewCone(double viewCone) {
+        if(viewCone < 0 || viewCone > 360) throw new IllegalArgumentException("View cone must be between 0 and 360 degrees!");
+
+        this.viewCone = viewCone;
         return this;
     }
 
+    /**
+     * Sends fewer points to Players that are further away. Players within this distance are sent every point,
+     * within twice this distance every second point, and so on.
+     *
+     * @param lodDistance The distance, in blocks, or 0 to always send every point.
+     * @return The ShapedParticle instance.
+     */
+    public ShapedParticle setLodDistance(double lodDistance) {
+        if(lodDistance < 0) throw new IllegalArgumentException("LOD distance cannot be negative!");
+
+        this.lodDistance = lodDistance;
+        return this;
+    }
+
+    /**
+     * Pre-calculates this ShapedParticle's frames, and shares them with all ShapedParticles that use the same key.
+     * Every ShapedParticle using the key should have the same shape and {@link ParticleTransform}s.
+     *
+     * @see ShapedParticle#setFrameCached(boolean)
+     *
+     * @param frameCacheKey The key to share the frames with.
+     * @return The ShapedParticle instance.
+     */
+    public ShapedParticle setFrameCacheKey(Object frameCacheKey) {
+        Objects.requireNonNull(frameCacheKey, "Cannot use a null key!");
+
+        this.frameCacheKey = frameCacheKey;
+        return this.setFrameCached(true);
+    }
+
+    /**
+     * Sets the key that identifies this shape and its parameters, so shapes with the same parameters can share their cached frames.
+     * The key is removed if the shape function is changed.
+     *
+     * @param shapeKey The key for the shape, which must implement equals and hashCode.
+     */
+    protected void setShapeKey(Object shapeKey) {
+        this.shapeKey = shapeKey;
+    }
+
     /**
      * Sets the {@link ParticleAnimator} for this ShapedParticle
      *
@@ -171,6 +385,31 @@ public class ShapedParticle {
     public ShapedParticle setShapeFunction(BiFunction<Location, Integer, Vector> shapeFunction) {
         Objects.requireNonNull(shapeFunction, "Cannot use null function!");
         this.shapeFunction = shapeFunction;
+        this.shapeKey = null;
+        this.invalidateFrames();
+        this.pointFunction = (location, step, points) -> {
+            Vector point = shapeFunction.apply(location, step);
+            points.add(point.getX(), point.getY(), point.getZ());
+        };
+        return this;
+    }
+
+    /**
+     * Changes the {@link PointFunction} that controls the ShapedParticle's shape.
+     *
+     * @param pointFunction The new point function.
+     * @return The ShapedParticle instance.
+     */
+    public ShapedParticle setPointFunction(PointFunction pointFunction) {
+        Objects.requireNonNull(pointFunction, "Cannot use null function!");
+        this.pointFunction = pointFunction;
+        this.shapeKey = null;
+        this.invalidateFrames();
+        this.shapeFunction = (location, step) -> {
+            PointBuffer point = new PointBuffer(1);
+            pointFunction.apply(location, step, point);
+            return point.getVector(0);
+        };
         return this;
     }
 
@@ -244,40 +483,158 @@ public class ShapedParticle {
      *
      * @param location The {@link Location} to render the particle.
      * @return A list containing all locations for each particle that makeup the ShapedParticle.
+     * @see ShapedParticle#computePoints(Location)
      */
     public List<Vector> getPoints(Location location) {
-        List<Vector> points = new ArrayList<>();
+        return this.computePoints(location).toVectors();
+    }
 
-        //Calculate each particle point, by applying them to the shape function.
-        for (int i = 0; i < this.getPoints(); i++) {
-            points.add(this.getShapeFunction().apply(location, i));
+    /**
+     * Calculates all the points for the ShapedParticle, without creating a {@link Vector} for each point.
+     * This applies all needed {@link ParticleTransform}s, and applies any necessary {@link ParticleCollider}s.
+     *
+     * The returned {@link PointBuffer} is reused, and is only valid until this method is called again.
+     *
+     * @param location The {@link Location} to render the particle.
+     * @return A PointBuffer containing all locations for each particle that makeup the ShapedParticle.
+     */
+    public PointBuffer computePoints(Location location) {
+        this.calculateFrame(location, this.frame);
+        this.collide(location.getWorld(), this.frame);
+
+        return this.frame;
+    }
+
+    /**
+     * Calculates the points of the next frame into a {@link PointBuffer}, without applying any {@link ParticleCollider}s.
+     * This does not touch the World, so it can be called off the main thread, as long as only one frame is calculated at a time.
+     *
+     * @param location The {@link Location} to render the particle.
+     * @param points The buffer to replace with the frame's points.
+     */
+    public void calculateFrame(Location location, PointBuffer points) {
+        FrameTable table = this.isFrameCached() ? this.getFrameTable(location) : null;
+
+        if(table != null) {
+            points.clear();
+            this.cachedFrame %= table.getFrames();
+            table.copyTo(this.cachedFrame++, location, points);
+        } else {
+            this.calculatePoints(location, points);
+        }
+    }
+
+    /**
+     * Applies all {@link ParticleCollider}s to a calculated frame. This must be called on the main thread.
+     *
+     * @param world The World the frame is rendered in.
+     * @param points The points of the frame.
+     */
+    public void collide(World world, PointBuffer points) {
+        for(ParticleCollider<?> collider : this.getColliders()) {
+            collider.startCollide(this, world, points);
+        }
+    }
+
+    /**
+     * Calculates the points of the next frame, by applying the point function and all {@link ParticleTransform}s.
+     */
+    private void calculatePoints(Location location, PointBuffer points) {
+        points.clear();
+        points.ensureCapacity(this.getPoints());
+
+        //Calculate each particle point, by applying them to the point function.
+        if(this.getParallelThreshold() > 0 && this.getPoints() >= this.getParallelThreshold() && ParticleAPI.getEngine() != null) {
+            PointTask.calculate(ParticleAPI.getEngine().getWorkers(), this.getPointFunction(), location, this.getPoints(), points);
+        } else {
+            for (int i = 0; i < this.getPoints(); i++) {
+                this.getPointFunction().apply(location, i, points);
+            }
         }
 
         //Apply the Transformations
-        this.getTransforms().forEach(transform -> {
-            if(transform.isStatic()) {
-                //Get a complete copy of the Shape Points.
-                List<Vector> temp = new ArrayList<>(points.stream().map(point -> new Vector(point.getX(), point.getY(), point.getZ())).toList());
+        for(ParticleTransform transform : this.getTransforms()) {
+            int size = points.size();
+            if(transform.isStatic() && transform.getFrames() > 1) {
+                //Keep a copy of the Shape Points, each subsequent frame is applied to a fresh copy.
+                this.base.copyFrom(points);
 
                 //Apply to the first set of points.
-                transform.applyToPoints(location, points);
+                transform.applyToPoints(location, points, 0, size);
 
                 //Now apply the transformation to each subsequent frame.
-                List<Vector> toApply = new ArrayList<>(temp.stream().map(point -> new Vector(point.getX(), point.getY(), point.getZ())).toList());
                 for(int i = 1; i < transform.getFrames(); i++) {
-                    transform.applyToPoints(location, toApply);
-                    points.addAll(toApply);
-                    toApply = new ArrayList<>(temp.stream().map(point -> new Vector(point.getX(), point.getY(), point.getZ())).toList());
+                    int start = points.size();
+                    points.addAll(this.base, 0, size);
+                    transform.applyToPoints(location, points, start, start + size);
                 }
             } else {
-                transform.applyToPoints(location, points);
+                transform.applyToPoints(location, points, 0, size);
             }
-        });
+        }
+    }
+
+    private FrameTable getFrameTable(Location location) {
+        Object key = this.getFrameCacheKey();
+        FrameTable table = FrameCache.get(key);
+        if(table != null || !this.canBake) return table;
+
+        table = this.bakeFrames(location);
+        if(table == null || !FrameCache.put(key, table)) {
+            //Too long or too large to cache, so this ShapedParticle will always be calculated.
+            this.canBake = false;
+            return null;
+        }
+
+        return table;
+    }
+
+    /**
+     * Calculates one full cycle of frames at the origin.
+     * A full cycle leaves every {@link ParticleTransform} on the same step it started on.
+     */
+    private FrameTable bakeFrames(Location location) {
+        int period = this.getCyclePeriod();
+        if(period < 1) return null;
+
+        Location origin = new Location(location.getWorld(), 0, 0, 0);
+        PointBuffer frames = new PointBuffer(period * this.getPoints());
+        PointBuffer frame = new PointBuffer(this.getPoints());
+        int[] offsets = new int[period + 1];
+        for(int i = 0; i < period; i++) {
+            this.calculatePoints(origin, frame);
+            frames.addAll(frame, 0, frame.size());
+            offsets[i + 1] = frames.size();
+        }
+
+        return new FrameTable(frames, offsets);
+    }
+
+    /**
+     * @return How many frames are rendered before all {@link ParticleTransform}s repeat, or -1 if it's longer than {@link FrameCache#getMaxFrames()}.
+     */
+    private int getCyclePeriod() {
+        long period = 1;
+        for(ParticleTransform transform : this.getTransforms()) {
+            //Static transforms are applied once for each of their frames, every frame.
+            long cycle = transform.getCycleLength();
+            long applied = transform.isStatic() && transform.getFrames() > 1 ? transform.getFrames() : 1;
+            long frames = cycle / gcd(cycle, applied);
+
+            period = period / gcd(period, frames) * frames;
+            if(period > FrameCache.getMaxFrames()) return -1;
+        }
 
-        this.getColliders().forEach(collider -> {
-            collider.startCollide(this, location.getWorld(), points);
-        });
+        return (int) period;
+    }
+
+    private void invalidateFrames() {
+        FrameCache.remove(this.identityKey);
+        this.canBake = true;
+        this.cachedFrame = 0;
+    }
 
-        return points;
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
     }
 }
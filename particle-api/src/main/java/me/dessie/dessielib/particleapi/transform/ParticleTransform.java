@@ -1,10 +1,12 @@
 package me.dessie.dessielib.particleapi.transform;
 
 
+import me.dessie.dessielib.particleapi.shapes.PointBuffer;
 import org.bukkit.Location;
 import org.bukkit.util.Vector;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.function.BiFunction;
 
 /**
@@ -97,6 +99,16 @@ public abstract class ParticleTransform {
      */
     public boolean isStatic() { return this.getType() == TransformType.STATIC; }
 
+    /**
+     * Returns how many times {@link ParticleTransform#apply(Location)} can be called before the steps repeat.
+     * {@link TransformType#OSCILLATE} goes up to one step past the frame count and back, the other types count from 0 to the frame count.
+     *
+     * @return How many steps are in one full cycle of the transformation.
+     */
+    public int getCycleLength() {
+        return this.getType() == TransformType.OSCILLATE ? this.getFrames() * 2 + 2 : this.getFrames() + 1;
+    }
+
     /**
      * @param type The new {@link TransformType}.
      * @return The {@link ParticleTransform} instance.
@@ -125,4 +137,34 @@ public abstract class ParticleTransform {
      * @param points The locations of all the particles that make up the ShapedParticle.
      */
     public abstract void applyToPoints(Location location, List<Vector> points);
+
+    /**
+     * Applies the transformation to every point in a {@link PointBuffer}.
+     *
+     * @param location The location of the {@link me.dessie.dessielib.particleapi.shapes.ShapedParticle} that is being transformed.
+     * @param points The points of all the particles that make up the ShapedParticle.
+     */
+    public void applyToPoints(Location location, PointBuffer points) {
+        this.applyToPoints(location, points, 0, points.size());
+    }
+
+    /**
+     * Applies the transformation to a range of points in a {@link PointBuffer}.
+     * The transformation function is applied once, no matter how many points are in the range.
+     *
+     * By default, the range is copied into {@link Vector}s and passed to {@link ParticleTransform#applyToPoints(Location, List)}.
+     * Override this method to transform the points without creating any Vectors.
+     *
+     * @param location The location of the {@link me.dessie.dessielib.particleapi.shapes.ShapedParticle} that is being transformed.
+     * @param points The points of all the particles that make up the ShapedParticle.
+     * @param from The index of the first point to transform, inclusive.
+     * @param to The index of the last point to transform, exclusive.
+     */
+    public void applyToPoints(Location location, PointBuffer points, int from, int to) {
+        Objects.checkFromToIndex(from, to, points.size());
+
+        List<Vector> vectors = points.toVectors(from, to);
+        this.applyToPoints(location, vectors);
+        points.setAll(from, vectors);
+    }
 }
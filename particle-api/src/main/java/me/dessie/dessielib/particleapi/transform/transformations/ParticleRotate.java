@@ -1,12 +1,14 @@
 package me.dessie.dessielib.particleapi.transform.transformations;
 
 
+import me.dessie.dessielib.particleapi.shapes.PointBuffer;
 import me.dessie.dessielib.particleapi.transform.ParticleTransform;
 import me.dessie.dessielib.particleapi.transform.TransformType;
 import org.bukkit.Location;
 import org.bukkit.util.Vector;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.function.BiFunction;
 
 /**
@@ -47,44 +49,47 @@ public class ParticleRotate extends ParticleTransform {
 
     @Override
     public void applyToPoints(Location location, List<Vector> points) {
+        PointBuffer buffer = PointBuffer.of(points);
+        this.applyToPoints(location, buffer, 0, buffer.size());
+        buffer.writeTo(points);
+    }
+
+    @Override
+    public void applyToPoints(Location location, PointBuffer points, int from, int to) {
+        Objects.checkFromToIndex(from, to, points.size());
         Vector rotateDegrees = this.apply(location);
 
-        for (Vector point : points) {
-            Vector origin = new Vector(location.getX(), location.getY(), location.getZ()).add(this.offset);
+        //The origin and angles are the same for every point, so only calculate them once.
+        double originX = location.getX() + this.offset.getX();
+        double originY = location.getY() + this.offset.getY();
+        double originZ = location.getZ() + this.offset.getZ();
 
+        double cosX = Math.cos(Math.toRadians(rotateDegrees.getX()));
+        double sinX = Math.sin(Math.toRadians(rotateDegrees.getX()));
+        double cosY = Math.cos(Math.toRadians(rotateDegrees.getY()));
+        double sinY = Math.sin(Math.toRadians(rotateDegrees.getY()));
+        double cosZ = Math.cos(Math.toRadians(rotateDegrees.getZ()));
+        double sinZ = Math.sin(Math.toRadians(rotateDegrees.getZ()));
+
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double[] zs = points.getZs();
+        for(int i = from; i < to; i++) {
             /*
             May not be a perfect solution, and may have issues when
             rotating on more than one axis.
             */
-            Vector rotated = rotateAroundX(origin, point, rotateDegrees.getX());
-            rotated = rotateAroundY(origin, rotated, rotateDegrees.getY());
-            rotated = rotateAroundZ(origin, rotated, rotateDegrees.getZ());
+            double x = xs[i];
+            double y = (ys[i] - originY) * cosX - (zs[i] - originZ) * sinX + originY;
+            double z = (ys[i] - originY) * sinX + (zs[i] - originZ) * cosX + originZ;
 
-            point.setX(rotated.getX()).setY(rotated.getY()).setZ(rotated.getZ());
-        }
-    }
+            double rotatedX = sinY * (z - originZ) + cosY * (x - originX) + originX;
+            z = cosY * (z - originZ) - sinY * (x - originX) + originZ;
+            x = rotatedX;
 
-    private Vector rotateAroundX(Vector origin, Vector point, double angle) {
-        double angleCos = Math.cos(Math.toRadians(angle));
-        double angleSin = Math.sin(Math.toRadians(angle));
-        double y = (point.getY() - origin.getY()) * angleCos - (point.getZ() - origin.getZ()) * angleSin + origin.getY();
-        double z = (point.getY() - origin.getY()) * angleSin + (point.getZ() - origin.getZ()) * angleCos + origin.getZ();
-        return new Vector(point.getX(), y, z);
-    }
-
-    private Vector rotateAroundY(Vector origin, Vector point, double angle) {
-        double angleCos = Math.cos(Math.toRadians(angle));
-        double angleSin = Math.sin(Math.toRadians(angle));
-        double x = angleSin * (point.getZ() - origin.getZ()) + angleCos * (point.getX() - origin.getX()) + origin.getX();
-        double z = angleCos * (point.getZ() - origin.getZ()) - angleSin * (point.getX() - origin.getX()) + origin.getZ();
-        return new Vector(x, point.getY(), z);
-    }
-
-    private Vector rotateAroundZ(Vector origin, Vector point, double angle) {
-        double angleCos = Math.cos(Math.toRadians(angle));
-        double angleSin = Math.sin(Math.toRadians(angle));
-        double x = angleCos * (point.getX() - origin.getX()) - angleSin * (point.getY() - origin.getY()) + origin.getX();
-        double y = angleSin * (point.getX() - origin.getX()) + angleCos * (point.getY() - origin.getY()) + origin.getY();
-        return new Vector(x, y, point.getZ());
+            xs[i] = cosZ * (x - originX) - sinZ * (y - originY) + originX;
+            ys[i] = sinZ * (x - originX) + cosZ * (y - originY) + originY;
+            zs[i] = z;
+        }
     }
 }
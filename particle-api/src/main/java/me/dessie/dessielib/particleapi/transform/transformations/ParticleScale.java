@@ -1,12 +1,14 @@
 package me.dessie.dessielib.particleapi.transform.transformations;
 
 
+import me.dessie.dessielib.particleapi.shapes.PointBuffer;
 import me.dessie.dessielib.particleapi.transform.ParticleTransform;
 import me.dessie.dessielib.particleapi.transform.TransformType;
 import org.bukkit.Location;
 import org.bukkit.util.Vector;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.function.BiFunction;
 
 /**
@@ -35,12 +37,23 @@ public class ParticleScale extends ParticleTransform {
 
     @Override
     public void applyToPoints(Location location, List<Vector> points) {
+        PointBuffer buffer = PointBuffer.of(points);
+        this.applyToPoints(location, buffer, 0, buffer.size());
+        buffer.writeTo(points);
+    }
+
+    @Override
+    public void applyToPoints(Location location, PointBuffer points, int from, int to) {
+        Objects.checkFromToIndex(from, to, points.size());
         Vector scaleFactors = this.apply(location);
 
-        for(Vector point : points) {
-            org.bukkit.util.Vector vector = new org.bukkit.util.Vector(point.getX(), point.getY(), point.getZ()).subtract(location.toVector());
-            vector.multiply(new org.bukkit.util.Vector(scaleFactors.getX(), scaleFactors.getY(), scaleFactors.getZ()));
-            point.add(new Vector(vector.getX(), vector.getY(), vector.getZ()));
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double[] zs = points.getZs();
+        for(int i = from; i < to; i++) {
+            xs[i] += (xs[i] - location.getX()) * scaleFactors.getX();
+            ys[i] += (ys[i] - location.getY()) * scaleFactors.getY();
+            zs[i] += (zs[i] - location.getZ()) * scaleFactors.getZ();
         }
     }
 }
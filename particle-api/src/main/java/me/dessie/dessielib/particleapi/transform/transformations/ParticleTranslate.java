@@ -1,12 +1,14 @@
 package me.dessie.dessielib.particleapi.transform.transformations;
 
 
+import me.dessie.dessielib.particleapi.shapes.PointBuffer;
 import me.dessie.dessielib.particleapi.transform.ParticleTransform;
 import me.dessie.dessielib.particleapi.transform.TransformType;
 import org.bukkit.Location;
 import org.bukkit.util.Vector;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.function.BiFunction;
 
 /**
@@ -33,9 +35,23 @@ public class ParticleTranslate extends ParticleTransform {
 
     @Override
     public void applyToPoints(Location location, List<Vector> points) {
+        PointBuffer buffer = PointBuffer.of(points);
+        this.applyToPoints(location, buffer, 0, buffer.size());
+        buffer.writeTo(points);
+    }
+
+    @Override
+    public void applyToPoints(Location location, PointBuffer points, int from, int to) {
+        Objects.checkFromToIndex(from, to, points.size());
         Vector transform = this.apply(location);
-        for(Vector point : points) {
-            point.add(transform);
+
+        double[] xs = points.getXs();
+        double[] ys = points.getYs();
+        double[] zs = points.getZs();
+        for(int i = from; i < to; i++) {
+            xs[i] += transform.getX();
+            ys[i] += transform.getY();
+            zs[i] += transform.getZ();
         }
     }
 }
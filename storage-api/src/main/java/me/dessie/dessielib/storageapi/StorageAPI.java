@@ -11,9 +11,14 @@ import me.dessie.dessielib.storageapi.storage.decomposition.StorageDecomposer;
 import org.bukkit.configuration.serialization.ConfigurationSerialization;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
@@ -23,6 +28,9 @@ import java.util.function.Function;
  */
 public class StorageAPI {
 
+    //Written by the DessieLibProcessor, lists annotated classes that need to be decomposed reflectively.
+    private static final String REFLECTIVE_INDEX = "META-INF/dessielib/reflective-decomposers";
+
     private static JavaPlugin plugin;
     private static boolean registered;
 
@@ -69,10 +77,64 @@ public class StorageAPI {
         return plugin;
     }
 
-    @SuppressWarnings("unchecked")
     private static void registerAnnotatedDecomposers() {
-        List<Class<Object>> classes = ClassUtil.getClasses(Object.class, StorageAPI.getPlugin(), null)
-                .stream().filter(clazz -> StorageContainer.getDecomposer(clazz) == null).toList();
+        ClassLoader loader = StorageAPI.getPlugin().getClass().getClassLoader();
+
+        //Decomposers generated by the DessieLibProcessor are listed as services, so the plugin doesn't need to be scanned.
+        boolean indexed = false;
+        try {
+            for(StorageDecomposer<?> decomposer : ServiceLoader.load(StorageDecomposer.class, loader)) {
+                indexed = true;
+                if(StorageContainer.getDecomposer(decomposer.getType()) == null) {
+                    StorageContainer.addStorageDecomposer(decomposer);
+                }
+            }
+        } catch (ServiceConfigurationError e) {
+            e.printStackTrace();
+        }
+
+        //Annotated classes the processor couldn't generate a decomposer for, such as private or inner classes.
+        List<Class<Object>> reflective = getReflectiveIndex(loader);
+        if(reflective != null) {
+            indexed = true;
+            registerReflectiveDecomposers(reflective);
+        }
+
+        //Plugins that weren't compiled with the processor still have their classes scanned.
+        if(!indexed) {
+            registerReflectiveDecomposers(ClassUtil.getClasses(Object.class, StorageAPI.getPlugin(), null));
+        }
+    }
+
+    /**
+     * @return The classes listed in the processor's reflective index, or null if the plugin doesn't have one.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Class<Object>> getReflectiveIndex(ClassLoader loader) {
+        try (InputStream stream = loader.getResourceAsStream(REFLECTIVE_INDEX)) {
+            if(stream == null) return null;
+
+            List<Class<Object>> classes = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+            for(String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if(line.isBlank()) continue;
+
+                try {
+                    classes.add((Class<Object>) Class.forName(line.trim(), false, loader));
+                } catch (ClassNotFoundException e) {
+                    e.printStackTrace();
+                }
+            }
+            return classes;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void registerReflectiveDecomposers(List<Class<Object>> candidates) {
+        List<Class<Object>> classes = candidates.stream().filter(clazz -> StorageContainer.getDecomposer(clazz) == null).toList();
 
         for(Class<Object> clazz : classes) {
             //Grab all the fields that have either Stored or StoredList annotations.
@@ -96,7 +158,7 @@ public class StorageAPI {
                         Class<?> type = f.isAnnotationPresent(Stored.class) ? f.getType() : f.getAnnotation(StoredList.class).type();
 
                         if(f.isAnnotationPresent(Stored.class)) {
-                            recompose.addRecomposeKey(path, type, container::retrieveAsync);
+                            recompose.addRecomposeKey(path, type);
                         } else if(container instanceof ArrayContainer<?> arrayContainer) {
                             recompose.addRecomposeKey(path, type, (p) -> {
                                 return (CompletableFuture<Object>) (CompletableFuture<?>) arrayContainer.retrieveListAsync(type, p);
@@ -1,37 +1,36 @@
 package me.dessie.dessielib.storageapi.storage.cache;
 
-import me.dessie.dessielib.storageapi.StorageAPI;
-import org.bukkit.Bukkit;
 import org.bukkit.scheduler.BukkitTask;
 
 /**
  * Represents an object that has been cached from a StorageContainer
  *
- * This object will only be cached for a certain amount of time before it automatically expires itself.
+ * This object will only be cached for a certain amount of time before its {@link StorageCache} expires it.
  */
 public class CachedObject {
 
     private final StorageCache cache;
+    private final String path;
     private final Object object;
     private final int duration;
 
-    private final BukkitTask task;
+    //The second, in the cache's expiry clock, that this object expires at.
+    private long deadline;
+
+    //The weight of this object, only calculated if the cache is bounded.
+    private int weight;
 
     /**
      * @param cache The {@link StorageCache} that cached this object.
+     * @param path The path the object is cached at.
      * @param object The object to cache
      * @param duration The duration to cache in seconds.
      */
-    CachedObject(StorageCache cache, Object object, int duration) {
+    CachedObject(StorageCache cache, String path, Object object, int duration) {
         this.cache = cache;
+        this.path = path;
         this.object = object;
         this.duration = duration;
-
-        if(duration > 0) {
-            this.task = Bukkit.getScheduler().runTaskLater(StorageAPI.getPlugin(), () -> {
-                this.getCache().remove(this);
-            }, duration * 20L);
-        } else this.task = null;
     }
 
     /**
@@ -43,12 +42,38 @@ public class CachedObject {
     }
 
     /**
-     * Returns the {@link BukkitTask} that controls when this CachedObject will be removed.
+     * Cached objects are no longer expired by their own task, they're expired by their {@link StorageCache}.
      *
-     * @return The BukkitTask
+     * @deprecated Cached objects no longer have a task.
+     * @return null
      */
+    @Deprecated
     public BukkitTask getTask() {
-        return task;
+        return null;
+    }
+
+    /**
+     * Returns the path this object is cached at.
+     * @return The path
+     */
+    public String getPath() {
+        return path;
+    }
+
+    long getDeadline() {
+        return deadline;
+    }
+
+    void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    int getWeight() {
+        return weight;
+    }
+
+    void setWeight(int weight) {
+        this.weight = weight;
     }
 
     /**
@@ -0,0 +1,75 @@
+package me.dessie.dessielib.storageapi.storage.cache;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * A hashed timing wheel that expires {@link CachedObject}s.
+ *
+ * Objects are placed into the slot of the second they expire in, and the wheel is advanced once per second by a single task.
+ * Each advance only visits one slot, so scheduling is O(1) and expiring is O(1) amortized,
+ * instead of every cached object needing its own scheduled task.
+ */
+class ExpiryWheel {
+
+    //Must be a power of two.
+    private static final int SLOTS = 64;
+    private static final int MASK = SLOTS - 1;
+
+    private final Queue<CachedObject>[] slots;
+    private final Consumer<CachedObject> expire;
+
+    //The current time of the wheel, in seconds since it was created.
+    private volatile long now;
+
+    /**
+     * @param expire What to do with a CachedObject once it has expired.
+     */
+    @SuppressWarnings("unchecked")
+    ExpiryWheel(Consumer<CachedObject> expire) {
+        this.expire = expire;
+        this.slots = new Queue[SLOTS];
+        for(int i = 0; i < SLOTS; i++) {
+            this.slots[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Schedules an object to expire after its duration.
+     *
+     * @param object The CachedObject to expire.
+     */
+    void schedule(CachedObject object) {
+        long deadline = this.now + object.getDuration();
+        object.setDeadline(deadline);
+        this.slots[(int) (deadline & MASK)].add(object);
+    }
+
+    /**
+     * Advances the wheel by one second, and expires every object in the new slot whose deadline has passed.
+     * Objects with a deadline more than a full rotation away are left in place until a later rotation.
+     */
+    void advance() {
+        long tick = ++this.now;
+
+        Iterator<CachedObject> iterator = this.slots[(int) (tick & MASK)].iterator();
+        while (iterator.hasNext()) {
+            CachedObject object = iterator.next();
+            if(object.getDeadline() > tick) continue;
+
+            iterator.remove();
+            this.expire.accept(object);
+        }
+    }
+
+    /**
+     * Removes every scheduled object without expiring them.
+     */
+    void clear() {
+        for(Queue<CachedObject> slot : this.slots) {
+            slot.clear();
+        }
+    }
+}
@@ -6,9 +6,11 @@ import me.dessie.dessielib.storageapi.storage.settings.StorageSettings;
 import org.bukkit.Bukkit;
 import org.bukkit.scheduler.BukkitRunnable;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Handles how fast a {@link StorageContainer} can be written to.
@@ -16,6 +18,8 @@ import java.util.concurrent.CompletableFuture;
  * This task will make sure that calls are not made constantly by adding a cooldown,
  * and will automatically flush the container after a specified period of time.
  *
+ * The cooldown and futures can be used from any thread.
+ *
  * @see StorageSettings Use the Settings to change the cooldown and flush rate.
  */
 public class FlushTask extends BukkitRunnable {
@@ -24,11 +28,11 @@ public class FlushTask extends BukkitRunnable {
     private final int flushRate;
     private final int flushCooldown;
 
-    private int currentFlushCooldown;
-    private boolean running;
-    private boolean queued;
+    private final AtomicInteger currentFlushCooldown = new AtomicInteger();
+    private final AtomicBoolean queued = new AtomicBoolean();
+    private volatile boolean running;
 
-    private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+    private final Queue<CompletableFuture<Void>> futures = new ConcurrentLinkedQueue<>();
 
     /**
      * @param container The container to create the FlushTask for.
@@ -38,16 +42,18 @@ public class FlushTask extends BukkitRunnable {
         this.flushRate = this.getContainer().getSettings().getFlushRate();
         this.flushCooldown = this.getContainer().getSettings().getFlushCooldown();
 
-        this.currentFlushCooldown = 0;
-
         //Decrement the cooldown.
         if(this.getFlushCooldown() > 0) {
             Bukkit.getScheduler().runTaskTimer(StorageAPI.getPlugin(), () -> {
-                this.currentFlushCooldown--;
-                if(this.isQueued() && this.canFlush()) {
+                this.currentFlushCooldown.decrementAndGet();
+                if(!this.canFlush()) return;
+
+                if(this.queued.compareAndSet(true, false)) {
                     this.getContainer().flush();
-                    this.queued = false;
                 }
+
+                //Anything that was waiting on the cooldown can now be completed.
+                this.completeFutures();
             }, 20, 20);
         }
 
@@ -104,7 +110,7 @@ public class FlushTask extends BukkitRunnable {
      * @see FlushTask#getFlushCooldown()
      */
     public void queueFlush() {
-        this.queued = true;
+        this.queued.set(true);
     }
 
     /**
@@ -115,7 +121,7 @@ public class FlushTask extends BukkitRunnable {
      * @return If the FlushTask has a queue in progress.
      */
     public boolean isQueued() {
-        return queued;
+        return queued.get();
     }
 
     /**
@@ -134,14 +140,24 @@ public class FlushTask extends BukkitRunnable {
      * @return The amount of seconds since the last flush.
      */
     public int getCurrentFlushCooldown() {
-        return currentFlushCooldown;
+        return currentFlushCooldown.get();
     }
 
     /**
      * Sets the flush cooldown back to the original maximum value to start the countdown.
      */
     public void resetFlushCooldown() {
-        this.currentFlushCooldown = this.getFlushCooldown();
+        this.currentFlushCooldown.set(this.getFlushCooldown());
+    }
+
+    /**
+     * Atomically checks if the cooldown has expired, and resets it if it has.
+     * Only one caller can start a flush per cooldown, even if they call this at the same time.
+     *
+     * @return If the cooldown had expired, and the caller can flush.
+     */
+    public boolean tryStartFlush() {
+        return this.currentFlushCooldown.getAndUpdate(cooldown -> cooldown <= 0 ? this.getFlushCooldown() : cooldown) <= 0;
     }
 
     /**
@@ -163,12 +179,20 @@ public class FlushTask extends BukkitRunnable {
         this.futures.add(future);
     }
 
+    /**
+     * Completes and removes every future that was added using {@link FlushTask#addFuture(CompletableFuture)}.
+     * Each future is only ever completed once, even if this is called from multiple threads.
+     */
+    public void completeFutures() {
+        CompletableFuture<Void> future;
+        while ((future = this.futures.poll()) != null) {
+            future.complete(null);
+        }
+    }
+
     @Override
     public void run() {
         this.getContainer().flush();
-
-        this.futures.forEach(future -> {
-            future.complete(null);
-        });
+        this.completeFutures();
     }
 }
@@ -1,29 +1,60 @@
 package me.dessie.dessielib.storageapi.storage.cache;
 
+import me.dessie.dessielib.storageapi.StorageAPI;
+import me.dessie.dessielib.storageapi.storage.cache.eviction.CacheWeigher;
+import me.dessie.dessielib.storageapi.storage.cache.eviction.EvictionPolicy;
 import me.dessie.dessielib.storageapi.storage.container.StorageContainer;
+import me.dessie.dessielib.storageapi.storage.settings.StorageSettings;
+import org.bukkit.Bukkit;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Caches all data into paths that have been retrieved from {@link StorageContainer}s.
  * 
  * This cache will be checked first before attempting to retrieve data from a StorageContainer again.
- * Data in this cache will expire, and can be changed by using {@link me.dessie.dessielib.storageapi.storage.settings.StorageSettings#setCacheDuration(int)}
+ * Data in this cache will expire, and can be changed by using {@link StorageSettings#setCacheDuration(int)}
+ *
+ * The cache can also be bounded using {@link StorageSettings#setMaxEntries(int)} and {@link StorageSettings#setMaxWeight(long)},
+ * in which case its {@link EvictionPolicy} evicts objects once it's over either limit.
+ *
+ * The cache is safe to use from any thread. Unbounded caches never lock, bounded caches only lock their EvictionPolicy.
  */
 public class StorageCache {
-    private final Map<String, CachedObject> cache = new HashMap<>();
+    private final Map<String, CachedObject> cache = new ConcurrentHashMap<>();
     private final int cacheDuration;
     private final StorageContainer container;
     private final FlushTask flushTask;
+    private final ExpiryWheel expiry = new ExpiryWheel(this::remove);
 
     //Temporarily stores all things that were changed and will need to be pushed to the data source.
-    private final Map<String, Object> setCache = new HashMap<>();
+    private final Map<String, Object> setCache = new ConcurrentHashMap<>();
 
-    //List of all paths that have been removed using the remove method.
-    private final List<String> removeCache = new ArrayList<>();
+    //All paths that have been removed using the remove method.
+    private final Set<String> removeCache = ConcurrentHashMap.newKeySet();
+
+    //Objects that have been taken from the set cache by a flush, but haven't finished storing yet.
+    private final Map<String, Object> flushingCache = new ConcurrentHashMap<>();
+
+    //Set while the current thread is handing a flush to the container, so the container doesn't discard newer changes.
+    private final ThreadLocal<Boolean> flushing = ThreadLocal.withInitial(() -> false);
+
+    //Only set if the cache is bounded, all bounded operations synchronize on the policy.
+    private final EvictionPolicy policy;
+    private final CacheWeigher weigher;
+    private final int maxEntries;
+    private final long maxWeight;
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
 
     /**
      * @param container The StorageContainer that this cache attaches to.
@@ -33,7 +64,16 @@ public class StorageCache {
         this.container = container;
         this.cacheDuration = cacheDuration;
 
+        StorageSettings settings = container.getSettings();
+        this.policy = settings.isCacheBounded() ? settings.getEvictionPolicy().get() : null;
+        this.weigher = settings.getWeigher();
+        this.maxEntries = settings.getMaxEntries();
+        this.maxWeight = settings.getMaxWeight();
+
         this.flushTask = new FlushTask(container);
+
+        //A single task expires every cached object, instead of one task per object.
+        Bukkit.getScheduler().runTaskTimer(StorageAPI.getPlugin(), this.expiry::advance, 20, 20);
     }
 
     /**
@@ -54,18 +94,52 @@ public class StorageCache {
      * @param cacheDuration How long, in seconds, an object should be kept in the cache for.
      */
     public void cache(String path, Object obj, int cacheDuration) {
-        this.getCache().put(path, new CachedObject(this, obj, cacheDuration));
+        CachedObject object = new CachedObject(this, path, obj, cacheDuration);
+
+        if(this.policy == null) {
+            this.getCache().put(path, object);
+        } else {
+            object.setWeight(this.weigher.weigh(path, obj));
+
+            synchronized (this.policy) {
+                CachedObject previous = this.getCache().put(path, object);
+                if(previous != null) {
+                    this.weight -= previous.getWeight();
+                }
+
+                this.weight += object.getWeight();
+                this.policy.recordInsert(path);
+                this.evict();
+            }
+        }
+
+        if(cacheDuration > 0) {
+            this.expiry.schedule(object);
+        }
     }
 
     /**
      * Gets an object from the cache.
-     * Getting an item from the cache will reset its cache removal timer.
+     * Getting an item from the cache counts as a use for its {@link EvictionPolicy}.
      *
      * @param path The path to get
      * @return The cached Object
      */
     public CachedObject get(String path) {
-        return this.getCache().get(path);
+        CachedObject object = this.getCache().get(path);
+        if(object == null) {
+            this.misses.increment();
+            return null;
+        }
+
+        this.hits.increment();
+        if(this.policy != null) {
+            synchronized (this.policy) {
+                this.policy.recordAccess(path);
+            }
+        }
+
+        return object;
     }
 
     /**
@@ -74,7 +148,18 @@ public class StorageCache {
      * @param path The path to remove.
      */
     public void remove(String path) {
-        this.getCache().remove(path);
+        if(this.policy == null) {
+            this.getCache().remove(path);
+            return;
+        }
+
+        synchronized (this.policy) {
+            CachedObject removed = this.getCache().remove(path);
+            if(removed != null) {
+                this.weight -= removed.getWeight();
+                this.policy.recordRemove(path);
+            }
+        }
     }
 
     /**
@@ -83,7 +168,18 @@ public class StorageCache {
      * @param object The CachedObject to remove.
      */
     public void remove(CachedObject object) {
-        this.getCache().entrySet().removeIf(entry -> entry.getValue() == object);
+        //Only removes the path if it hasn't been re-cached with a different object since.
+        if(this.policy == null) {
+            this.getCache().remove(object.getPath(), object);
+            return;
+        }
+
+        synchronized (this.policy) {
+            if(this.getCache().remove(object.getPath(), object)) {
+                this.weight -= object.getWeight();
+                this.policy.recordRemove(object.getPath());
+            }
+        }
     }
 
     /**
@@ -96,18 +192,65 @@ public class StorageCache {
      * @see StorageContainer#remove(String) for adding paths into the Remove cache.
      */
     public void flush() {
-        if(!this.getSetCache().isEmpty()) {
-            StorageCache cache = this;
-            this.getContainer().storeAll(new HashMap<>() {{
-                putAll(cache.getSetCache());
-            }});
+        //Take each change atomically, so changes made while flushing are kept for the next flush instead of being lost.
+        Map<String, Object> stores = new HashMap<>();
+        for(String path : this.getSetCache().keySet()) {
+            Object data = this.getSetCache().remove(path);
+            if(data != null) {
+                stores.put(path, data);
+            }
         }
 
-        if(!this.getRemoveCache().isEmpty()) {
-            this.getContainer().deleteAll(new ArrayList<>(this.getRemoveCache()));
+        List<String> deletes = new ArrayList<>();
+        for(String path : this.getRemoveCache()) {
+            if(this.getRemoveCache().remove(path)) {
+                deletes.add(path);
+            }
+        }
+
+        this.flushing.set(true);
+        try {
+            if(!stores.isEmpty()) {
+                //Keep the objects protected from eviction until they've been stored.
+                //Only remove the values this flush stored, a later flush may already be storing newer ones.
+                this.flushingCache.putAll(stores);
+                this.getContainer().storeAll(stores).whenComplete((result, throwable) -> stores.forEach((path, value) -> this.flushingCache.remove(path, value)));
+            }
+
+            if(!deletes.isEmpty()) {
+                this.getContainer().deleteAll(deletes);
+            }
+        } finally {
+            this.flushing.set(false);
         }
     }
 
+    /**
+     * Discards any pending set or remove for a path, since it has been stored or deleted directly.
+     *
+     * While this cache is flushing, this does nothing, since the flushed changes have already been taken
+     * and anything still pending was changed after the flush started.
+     *
+     * @param path The path that was stored or deleted.
+     */
+    public void discardPending(String path) {
+        if(this.flushing.get()) return;
+
+        this.getSetCache().remove(path);
+        this.getRemoveCache().remove(path);
+    }
+
+    /**
+     * Returns if the provided path has changes that haven't been written to the data structure yet.
+     * These paths are never evicted from the cache.
+     *
+     * @param path The path to check.
+     * @return If the path has unflushed changes.
+     */
+    public boolean isDirty(String path) {
+        return this.getSetCache().containsKey(path) || this.flushingCache.containsKey(path);
+    }
+
     /**
      * Returns if the provided path is cached.
      *
@@ -122,12 +265,54 @@ public class StorageCache {
      * Clears the cache.
      */
     public void clearCache() {
-        for(CachedObject object : this.getCache().values()) {
-            if(object.getTask() != null) {
-                object.getTask().cancel();
+        this.expiry.clear();
+
+        if(this.policy == null) {
+            this.getCache().clear();
+            return;
+        }
+
+        synchronized (this.policy) {
+            this.getCache().clear();
+            this.policy.clear();
+            this.weight = 0;
+        }
+    }
+
+    /**
+     * Returns the hit, miss and eviction counts of this cache.
+     *
+     * @return A copy of the current counts.
+     */
+    public Stats getStats() {
+        long weight;
+        if(this.policy == null) {
+            weight = this.getCache().size();
+        } else {
+            synchronized (this.policy) {
+                weight = this.weight;
             }
         }
-        this.getCache().clear();
+
+        return new Stats(this.hits.sum(), this.misses.sum(), this.evictions.sum(), this.getCache().size(), weight);
+    }
+
+    /**
+     * Resets the hit, miss and eviction counts.
+     */
+    public void resetStats() {
+        this.hits.reset();
+        this.misses.reset();
+        this.evictions.reset();
+    }
+
+    /**
+     * Returns if the cache has a max entries or max weight, and evicts objects using an {@link EvictionPolicy}.
+     *
+     * @return If the cache is bounded.
+     */
+    public boolean isBounded() {
+        return this.policy != null;
     }
 
     /**
@@ -177,11 +362,46 @@ public class StorageCache {
     }
 
     /**
-     * Returns the cache of objects that have been removed and not updated to the data structure.
+     * Returns the cache of paths that have been removed and not updated to the data structure.
      * This cache is cleared once the cache has been pushed to the structure.
      * @return The current remove cache
      */
-    public List<String> getRemoveCache() {
+    public Set<String> getRemoveCache() {
         return removeCache;
     }
+
+    //Evicts until the cache is within its limits, must be called while synchronized on the policy.
+    private void evict() {
+        while ((this.maxEntries > 0 && this.getCache().size() > this.maxEntries) || (this.maxWeight > 0 && this.weight > this.maxWeight)) {
+            //Objects that haven't been flushed are never evicted, since they may not be in the data structure yet.
+            String path = this.policy.evict(evicting -> !this.isDirty(evicting));
+            if(path == null) return;
+
+            CachedObject evicted = this.getCache().remove(path);
+            if(evicted != null) {
+                this.weight -= evicted.getWeight();
+                this.evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * A point in time copy of a {@link StorageCache}'s counts.
+     *
+     * @param hits The amount of gets that found a cached object.
+     * @param misses The amount of gets that didn't find a cached object.
+     * @param evictions The amount of objects evicted because the cache was over its limits.
+     * @param size The amount of cached objects.
+     * @param weight The total weight of the cached objects, which is the size if the cache isn't bounded.
+     */
+    public record Stats(long hits, long misses, long evictions, int size, long weight) {
+
+        /**
+         * @return The fraction of gets that found a cached object, between 0 and 1.
+         */
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
 }
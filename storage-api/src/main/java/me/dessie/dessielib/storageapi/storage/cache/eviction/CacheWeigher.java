@@ -0,0 +1,25 @@
+package me.dessie.dessielib.storageapi.storage.cache.eviction;
+
+/**
+ * Calculates the weight of a cached object, used to limit a {@link me.dessie.dessielib.storageapi.storage.cache.StorageCache}
+ * by something other than its amount of entries, such as an estimate of memory usage.
+ *
+ * @see me.dessie.dessielib.storageapi.storage.settings.StorageSettings#setMaxWeight(long)
+ */
+@FunctionalInterface
+public interface CacheWeigher {
+
+    /**
+     * A weigher that gives every entry a weight of 1.
+     */
+    CacheWeigher SINGLETON = (path, object) -> 1;
+
+    /**
+     * Returns the weight of a cached object. This is only calculated once, when the object is cached.
+     *
+     * @param path The path the object is cached at.
+     * @param object The cached object.
+     * @return The weight of the object, which should not be negative.
+     */
+    int weigh(String path, Object object);
+}
@@ -0,0 +1,51 @@
+package me.dessie.dessielib.storageapi.storage.cache.eviction;
+
+import me.dessie.dessielib.storageapi.storage.cache.StorageCache;
+import me.dessie.dessielib.storageapi.storage.settings.StorageSettings;
+
+import java.util.function.Predicate;
+
+/**
+ * Decides which path is evicted when a {@link StorageCache} is over its size or weight limit.
+ *
+ * A policy instance belongs to a single StorageCache, and is only used if the cache is bounded.
+ * The cache synchronizes on the policy, so implementations don't need to be thread-safe.
+ *
+ * @see StorageSettings#setMaxEntries(int)
+ * @see StorageSettings#setMaxWeight(long)
+ * @see StorageSettings#setEvictionPolicy(java.util.function.Supplier)
+ */
+public interface EvictionPolicy {
+
+    /**
+     * Called when a path is added to the cache.
+     * @param path The path that was added.
+     */
+    void recordInsert(String path);
+
+    /**
+     * Called when a cached path is read.
+     * @param path The path that was read.
+     */
+    void recordAccess(String path);
+
+    /**
+     * Called when a path is removed from the cache for any reason other than {@link EvictionPolicy#evict(Predicate)}.
+     * @param path The path that was removed.
+     */
+    void recordRemove(String path);
+
+    /**
+     * Chooses a path to evict, and stops tracking it.
+     *
+     * @param evictable Tests if a path is allowed to be evicted.
+     *                  Paths that have changes which haven't been flushed yet are never evictable.
+     * @return The path to evict, or null if no tracked path can be evicted.
+     */
+    String evict(Predicate<String> evictable);
+
+    /**
+     * Stops tracking every path.
+     */
+    void clear();
+}
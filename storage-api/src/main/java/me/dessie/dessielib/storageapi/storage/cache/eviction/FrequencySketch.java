@@ -0,0 +1,88 @@
+package me.dessie.dessielib.storageapi.storage.cache.eviction;
+
+import java.util.Arrays;
+
+/**
+ * A count-min sketch that estimates how often a path has been used recently.
+ *
+ * Counters saturate at 15, and every counter is halved once enough increments have been recorded,
+ * so the sketch favours recent popularity over all-time popularity.
+ */
+class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = { 0x97cb3127, 0xc2b2ae35, 0x9e3779b9, 0x85ebca6b };
+
+    private final byte[][] counters;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedEntries Roughly how many distinct paths are expected to be tracked.
+     */
+    FrequencySketch(int expectedEntries) {
+        int width = Integer.highestOneBit(Math.max(64, expectedEntries - 1) << 1);
+        this.counters = new byte[DEPTH][width];
+        this.mask = width - 1;
+        this.sampleSize = width * 10;
+    }
+
+    /**
+     * Records a use of the path.
+     * @param path The path that was used.
+     */
+    void increment(String path) {
+        int hash = path.hashCode();
+        boolean added = false;
+        for(int i = 0; i < DEPTH; i++) {
+            int index = this.index(hash, i);
+            if(this.counters[i][index] < MAX_COUNT) {
+                this.counters[i][index]++;
+                added = true;
+            }
+        }
+
+        if(added && ++this.additions >= this.sampleSize) {
+            this.age();
+        }
+    }
+
+    /**
+     * @param path The path to estimate.
+     * @return The estimated amount of recent uses of the path, up to 15.
+     */
+    int frequency(String path) {
+        int hash = path.hashCode();
+        int frequency = MAX_COUNT;
+        for(int i = 0; i < DEPTH; i++) {
+            frequency = Math.min(frequency, this.counters[i][this.index(hash, i)]);
+        }
+        return frequency;
+    }
+
+    /**
+     * Resets every counter.
+     */
+    void clear() {
+        for(byte[] row : this.counters) {
+            Arrays.fill(row, (byte) 0);
+        }
+        this.additions = 0;
+    }
+
+    private void age() {
+        for(byte[] row : this.counters) {
+            for(int i = 0; i < row.length; i++) {
+                row[i] = (byte) (row[i] >>> 1);
+            }
+        }
+        this.additions /= 2;
+    }
+
+    private int index(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * 0x9e3779b1;
+        return (h ^ (h >>> 16)) & this.mask;
+    }
+}
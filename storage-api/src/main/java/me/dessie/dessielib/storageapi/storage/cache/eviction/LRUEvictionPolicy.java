@@ -0,0 +1,56 @@
+package me.dessie.dessielib.storageapi.storage.cache.eviction;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Evicts the least recently used path.
+ */
+public class LRUEvictionPolicy implements EvictionPolicy {
+
+    //Access ordered, so the eldest entry is the least recently used.
+    private final LinkedHashMap<String, Boolean> order = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Override
+    public void recordInsert(String path) {
+        this.order.put(path, Boolean.TRUE);
+    }
+
+    @Override
+    public void recordAccess(String path) {
+        this.order.get(path);
+    }
+
+    @Override
+    public void recordRemove(String path) {
+        this.order.remove(path);
+    }
+
+    @Override
+    public String evict(Predicate<String> evictable) {
+        return evictFrom(this.order, evictable);
+    }
+
+    @Override
+    public void clear() {
+        this.order.clear();
+    }
+
+    /**
+     * Removes and returns the eldest evictable path in an access ordered map.
+     */
+    static String evictFrom(LinkedHashMap<String, Boolean> order, Predicate<String> evictable) {
+        Iterator<Map.Entry<String, Boolean>> iterator = order.entrySet().iterator();
+        while (iterator.hasNext()) {
+            String path = iterator.next().getKey();
+            if(evictable.test(path)) {
+                iterator.remove();
+                return path;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,92 @@
+package me.dessie.dessielib.storageapi.storage.cache.eviction;
+
+import java.util.LinkedHashMap;
+import java.util.function.Predicate;
+
+/**
+ * A frequency aware policy, based on W-TinyLFU.
+ *
+ * New paths enter a small LRU window. When the window is full, its eldest path has to compete with the eldest
+ * path of the main LRU, and only the one that has been used more often recently stays cached.
+ * This stops a one-off scan, such as a leaderboard load, from evicting frequently used data.
+ */
+public class TinyLFUEvictionPolicy implements EvictionPolicy {
+
+    //The percentage of tracked paths that the window can hold.
+    private static final int WINDOW_PERCENT = 1;
+
+    private final LinkedHashMap<String, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Boolean> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+
+    /**
+     * Creates a policy sized for roughly 1024 entries.
+     */
+    public TinyLFUEvictionPolicy() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedEntries Roughly how many entries the cache is expected to hold, used to size the frequency sketch.
+     */
+    public TinyLFUEvictionPolicy(int expectedEntries) {
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    @Override
+    public void recordInsert(String path) {
+        this.sketch.increment(path);
+        if(!this.main.containsKey(path)) {
+            this.window.put(path, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public void recordAccess(String path) {
+        this.sketch.increment(path);
+        if(this.window.get(path) == null) {
+            this.main.get(path);
+        }
+    }
+
+    @Override
+    public void recordRemove(String path) {
+        this.window.remove(path);
+        this.main.remove(path);
+    }
+
+    @Override
+    public String evict(Predicate<String> evictable) {
+        int windowLimit = Math.max(1, (this.window.size() + this.main.size()) * WINDOW_PERCENT / 100);
+
+        //The window isn't full, so the main space is what's over capacity.
+        if(this.window.size() <= windowLimit) {
+            String victim = LRUEvictionPolicy.evictFrom(this.main, evictable);
+            return victim != null ? victim : LRUEvictionPolicy.evictFrom(this.window, evictable);
+        }
+
+        String candidate = LRUEvictionPolicy.evictFrom(this.window, evictable);
+        if(candidate == null) {
+            return LRUEvictionPolicy.evictFrom(this.main, evictable);
+        }
+
+        String victim = LRUEvictionPolicy.evictFrom(this.main, evictable);
+        if(victim == null) return candidate;
+
+        //Admit the candidate into the main space only if it's more popular than what it would replace.
+        if(this.sketch.frequency(candidate) > this.sketch.frequency(victim)) {
+            this.main.put(candidate, Boolean.TRUE);
+            return victim;
+        }
+
+        this.main.put(victim, Boolean.TRUE);
+        return candidate;
+    }
+
+    @Override
+    public void clear() {
+        this.window.clear();
+        this.main.clear();
+        this.sketch.clear();
+    }
+}
@@ -3,6 +3,7 @@ package me.dessie.dessielib.storageapi.storage.container;
 import me.dessie.dessielib.core.utils.tuple.Pair;
 import me.dessie.dessielib.core.utils.tuple.Triple;
 import me.dessie.dessielib.storageapi.StorageAPI;
+import me.dessie.dessielib.storageapi.storage.decomposition.PathTemplate;
 import me.dessie.dessielib.storageapi.storage.decomposition.RecomposedObject;
 import me.dessie.dessielib.storageapi.storage.decomposition.StorageDecomposer;
 import me.dessie.dessielib.storageapi.storage.settings.StorageSettings;
@@ -397,29 +398,27 @@ public abstract class ArrayContainer<H> extends StorageContainer {
         Recursive<Function<Triple<String, Object, StorageDecomposer<?>>, List<Pair<String, Object>>>> recursive = new Recursive<>();
         recursive.function = (triple) -> {
             List<Pair<String, Object>> temp = new ArrayList<>();
-            StringBuilder currentPath = new StringBuilder(triple.getLeft());
             StorageDecomposer<?> composer = triple.getRight();
+            PathTemplate template = composer.getTemplate(triple.getLeft() + PathTemplate.PLACEHOLDER);
 
-            for (String decomposedPath : composer.applyDecompose(triple.getMiddle()).getDecomposedMap().keySet()) {
-                Object storedObject = composer.applyDecompose(triple.getMiddle()).getDecomposedMap().get(decomposedPath);
-                currentPath.append(decomposedPath);
-
-                if (storedObject != null && StorageContainer.getDecomposer(storedObject.getClass()) != null) {
-                    StorageDecomposer<?> nestedDecomposer = StorageContainer.getDecomposer(storedObject.getClass());
-                    currentPath.append(".");
+            //Decompose once, instead of once per decomposed key.
+            for (Map.Entry<String, Object> decomposed : composer.applyDecompose(triple.getMiddle()).getDecomposedMap().entrySet()) {
+                Object storedObject = decomposed.getValue();
+                String currentPath = template.compile(decomposed.getKey());
 
+                StorageDecomposer<?> nestedDecomposer = storedObject == null ? null : StorageContainer.getDecomposer(storedObject.getClass());
+                if (nestedDecomposer != null) {
                     //Check for recursive storage
                     if(composer == nestedDecomposer) {
                         throw new IllegalStateException("StorageDecomposer class " + storedObject.getClass().getName() + " cannot store itself, as this will cause infinite recursive storage.");
                     }
 
-                    temp.addAll(recursive.function.apply(new Triple<>(currentPath.toString(), storedObject, nestedDecomposer)));
+                    temp.addAll(recursive.function.apply(new Triple<>(currentPath + ".", storedObject, nestedDecomposer)));
                 } else if(storedObject != null && this.isList(storedObject)) {
-                    temp.add(new Pair<>(currentPath.toString(), handleList(storedObject)));
+                    temp.add(new Pair<>(currentPath, handleList(storedObject)));
                 } else {
-                    temp.add(new Pair<>(currentPath.toString(), storedObject));
+                    temp.add(new Pair<>(currentPath, storedObject));
                 }
-                currentPath = new StringBuilder(triple.getLeft());
             }
             return temp;
         };
@@ -0,0 +1,124 @@
+package me.dessie.dessielib.storageapi.storage.container;
+
+import me.dessie.dessielib.storageapi.storage.decomposition.PathTemplate;
+import me.dessie.dessielib.storageapi.storage.decomposition.RecomposedObject;
+import me.dessie.dessielib.storageapi.storage.decomposition.StorageDecomposer;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Recomposes {@link StorageDecomposer}s from a {@link StorageContainer} without blocking any threads.
+ *
+ * The whole object is planned first, including nested objects, so every path added with
+ * {@link RecomposedObject#addRecomposeKey(String, Class)} is known before anything is retrieved.
+ * Those paths are then retrieved together with {@link StorageContainer#retrieveAll(Collection)}, in one task on the
+ * {@link me.dessie.dessielib.storageapi.storage.settings.StorageSettings#getRecomposeExecutor()}, and each object is completed as soon as its own paths are.
+ */
+final class RecompositionEngine {
+
+    //Stops self referencing types from being planned forever.
+    private static final int MAX_DEPTH = 16;
+
+    private final StorageContainer container;
+
+    RecompositionEngine(StorageContainer container) {
+        this.container = container;
+    }
+
+    /**
+     * Recomposes an object.
+     *
+     * @param decomposer The StorageDecomposer to recompose with.
+     * @param path The path to recompose from, containing %path%
+     * @param <T> The type of Object to recompose.
+     * @return A {@link CompletableFuture} that is completed with the recomposed object, or null if the decomposer can't recompose.
+     */
+    <T> CompletableFuture<T> recompose(StorageDecomposer<T> decomposer, String path) {
+        if(decomposer.getRecomposeFunction() == null) return CompletableFuture.completedFuture(null);
+
+        Map<String, CompletableFuture<Object>> leaves = new LinkedHashMap<>();
+        CompletableFuture<T> future = this.plan(decomposer, path, leaves, 0);
+        this.retrieve(leaves);
+
+        return future;
+    }
+
+    private <T> CompletableFuture<T> plan(StorageDecomposer<T> decomposer, String path, Map<String, CompletableFuture<Object>> leaves, int depth) {
+        RecomposedObject<T> recomposedObject = new RecomposedObject<>();
+        CompletableFuture<T> completed = decomposer.getRecomposeFunction().apply(this.container, recomposedObject);
+        PathTemplate template = decomposer.getTemplate(path);
+
+        List<CompletableFuture<?>> composedFutures = new ArrayList<>();
+        for(String compose : recomposedObject.getRetrievedKeys()) {
+            String composedPath = template.compile(compose);
+            CompletableFuture<Object> target = recomposedObject.getCompletedPath().get(compose);
+            StorageDecomposer<?> nested = StorageContainer.getDecomposer(recomposedObject.getType(compose));
+
+            CompletableFuture<?> source;
+            if(nested == null || nested.getRecomposeFunction() == null) {
+                //Paths shared by multiple objects are only retrieved once.
+                source = leaves.computeIfAbsent(composedPath, p -> new CompletableFuture<>());
+            } else if(depth < MAX_DEPTH) {
+                source = this.plan(nested, composedPath + "." + PathTemplate.PLACEHOLDER, leaves, depth + 1);
+            } else {
+                source = CompletableFuture.completedFuture(null);
+            }
+
+            source.whenComplete((obj, throwable) -> target.complete(throwable == null ? obj : null));
+            composedFutures.add(target);
+        }
+
+        //Paths with their own retrieve function are retrieved by that function.
+        for(Map.Entry<String, Function<String, CompletableFuture<Object>>> entry : recomposedObject.getRecomposedMap().entrySet()) {
+            String composedPath = template.compile(entry.getKey());
+
+            if(this.container.isCached(composedPath)) {
+                Object cached = this.container.get(composedPath);
+
+                //Make sure the completed path is also notified of this completion, since we're not actually completing via retrieve.
+                recomposedObject.getCompletedPath().get(entry.getKey()).complete(cached);
+                composedFutures.add(CompletableFuture.completedFuture(cached));
+            } else {
+                CompletableFuture<Object> future = entry.getValue().apply(composedPath);
+                composedFutures.add(future);
+
+                //Cache the object once its returned.
+                future.thenAccept(obj -> this.container.cacheRetrieve(composedPath, obj));
+            }
+        }
+
+        CompletableFuture.allOf(composedFutures.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, throwable) -> {
+            completed.complete(recomposedObject.complete());
+        });
+
+        return completed;
+    }
+
+    private void retrieve(Map<String, CompletableFuture<Object>> leaves) {
+        if(leaves.isEmpty()) return;
+
+        //Anything already cached doesn't need to wait for the executor.
+        Map<String, CompletableFuture<Object>> remaining = new LinkedHashMap<>();
+        leaves.forEach((path, future) -> {
+            if(this.container.isCached(path)) {
+                future.complete(this.container.get(path));
+            } else {
+                remaining.put(path, future);
+            }
+        });
+
+        if(remaining.isEmpty()) return;
+
+        this.container.getSettings().getRecomposeExecutor().execute(() -> {
+            try {
+                Map<String, Object> retrieved = this.container.retrieveAll(remaining.keySet());
+                remaining.forEach((path, future) -> future.complete(retrieved.get(path)));
+            } catch (Exception e) {
+                e.printStackTrace();
+                remaining.values().forEach(future -> future.complete(null));
+            }
+        });
+    }
+}
@@ -4,17 +4,20 @@ import me.dessie.dessielib.storageapi.StorageAPI;
 import me.dessie.dessielib.storageapi.storage.cache.CachedObject;
 import me.dessie.dessielib.storageapi.storage.cache.FlushTask;
 import me.dessie.dessielib.storageapi.storage.cache.StorageCache;
+import me.dessie.dessielib.storageapi.storage.container.hooks.BatchRetrieveHook;
 import me.dessie.dessielib.storageapi.storage.container.hooks.DeleteHook;
 import me.dessie.dessielib.storageapi.storage.container.hooks.RetrieveHook;
 import me.dessie.dessielib.storageapi.storage.container.hooks.StorageHook;
 import me.dessie.dessielib.storageapi.storage.container.hooks.StoreHook;
 import me.dessie.dessielib.storageapi.storage.decomposition.DecomposedObject;
+import me.dessie.dessielib.storageapi.storage.decomposition.PathTemplate;
 import me.dessie.dessielib.storageapi.storage.decomposition.StorageDecomposer;
 import me.dessie.dessielib.storageapi.storage.settings.StorageSettings;
 import org.bukkit.Bukkit;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -28,10 +31,21 @@ import java.util.concurrent.TimeoutException;
  */
 public abstract class StorageContainer {
 
-    private static final List<StorageDecomposer<?>> storageDecomposers = new ArrayList<>();
+    private static final List<StorageDecomposer<?>> storageDecomposers = new CopyOnWriteArrayList<>();
+
+    //Caches the decomposer of each class, so looking one up doesn't scan every registered decomposer.
+    private static final ClassValue<Optional<StorageDecomposer<?>>> decomposerLookup = new ClassValue<>() {
+        @Override
+        protected Optional<StorageDecomposer<?>> computeValue(Class<?> type) {
+            return getStorageDecomposers().stream()
+                    .filter(decomposer -> decomposer.getType() == type)
+                    .findFirst();
+        }
+    };
 
     private final StorageCache cache;
     private final StorageSettings settings;
+    private final RecompositionEngine recomposer;
 
     /**
      * Creates a StorageContainer with a default {@link StorageSettings}.
@@ -56,6 +70,7 @@ public abstract class StorageContainer {
 
         this.settings = settings;
         this.cache = new StorageCache(this, this.getSettings().getCacheDuration());
+        this.recomposer = new RecompositionEngine(this);
     }
 
     /**
@@ -82,6 +97,19 @@ public abstract class StorageContainer {
      */
     protected abstract RetrieveHook retrieveHook();
 
+    /**
+     * Optional implementation method, specifies how this StorageContainer's
+     * retrieve operations are performed when many paths are retrieved at once.
+     *
+     * Containers that can answer multiple paths in a single call should override this,
+     * so recomposing an Object, or {@link StorageContainer#retrieveAll(Collection)}, only reaches the data structure once.
+     *
+     * @return The {@link BatchRetrieveHook} behavior, or null to retrieve each path using the {@link RetrieveHook}.
+     */
+    protected BatchRetrieveHook batchRetrieveHook() {
+        return null;
+    }
+
     /**
      * Returns a list of all sub-paths one level below the provided path.
      *
@@ -215,20 +243,7 @@ public abstract class StorageContainer {
      */
     public CompletableFuture<Void> store(String path, Object data) {
         CompletableFuture<Void> future = this.storeData(path, data);
-
-        if(this.getCache().getFlushTask().canFlush()) {
-            future.thenRunAsync(() -> this.storeHook().complete());
-            this.getCache().getFlushTask().resetFlushCooldown();
-
-            return future;
-        } else {
-            CompletableFuture<Void> waiting = new CompletableFuture<>();
-            this.getCache().getFlushTask().addFuture(waiting);
-
-            //Wait for both the waiting task and the actual storage task to complete.
-            return CompletableFuture.allOf(waiting, future);
-        }
-
+        return this.completeStore(future);
     }
 
     /**
@@ -248,10 +263,19 @@ public abstract class StorageContainer {
         }
 
         CompletableFuture<Void> future = CompletableFuture.allOf(futures.toArray(new CompletableFuture[] {}));
+        return this.completeStore(future);
+    }
 
-        if(this.getCache().getFlushTask().canFlush()) {
+    /**
+     * Calls {@link StoreHook#complete()} once a store has finished, obeying the {@link FlushTask}'s cooldown.
+     * If the cooldown is active, the returned future will also wait for the next flush.
+     *
+     * @param future The future of the store operation.
+     * @return A {@link CompletableFuture} that will be completed once the store has been finished.
+     */
+    protected CompletableFuture<Void> completeStore(CompletableFuture<Void> future) {
+        if(this.getCache().getFlushTask().tryStartFlush()) {
             future.thenRunAsync(() -> this.storeHook().complete());
-            this.getCache().getFlushTask().resetFlushCooldown();
 
             return future;
         } else {
@@ -277,15 +301,11 @@ public abstract class StorageContainer {
 
         CompletableFuture<Void> future = new CompletableFuture<>();
 
-        //Store if it could flush at the time of calling.
-        boolean canFlush = this.getCache().getFlushTask().canFlush();
-
         Bukkit.getScheduler().runTaskAsynchronously(StorageAPI.getPlugin(), () -> {
             this.deleteHook().getConsumer().accept(path);
 
-            if(canFlush) {
+            if(this.getCache().getFlushTask().tryStartFlush()) {
                 this.deleteHook().complete();
-                this.getCache().getFlushTask().resetFlushCooldown();
 
                 future.complete(null);
             } else {
@@ -297,8 +317,7 @@ public abstract class StorageContainer {
         });
 
         //This should overwrite anything we've already cached to do.
-        this.getCache().getRemoveCache().remove(path);
-        this.getCache().getSetCache().remove(path);
+        this.getCache().discardPending(path);
 
         return future;
     }
@@ -320,12 +339,8 @@ public abstract class StorageContainer {
         Bukkit.getScheduler().runTaskAsynchronously(StorageAPI.getPlugin(), () -> {
             paths.forEach(p -> this.deleteHook().getConsumer().accept(p));
 
-            //Store if it could flush at the time of calling.
-            boolean canFlush = this.getCache().getFlushTask().canFlush();
-
-            if(canFlush) {
+            if(this.getCache().getFlushTask().tryStartFlush()) {
                 this.deleteHook().complete();
-                this.getCache().getFlushTask().resetFlushCooldown();
 
                 future.complete(null);
             } else {
@@ -337,8 +352,7 @@ public abstract class StorageContainer {
         });
 
         //This should overwrite anything we've already cached to do.
-        this.getCache().getRemoveCache().removeAll(paths);
-        this.getCache().getSetCache().keySet().removeIf(paths::contains);
+        paths.forEach(this.getCache()::discardPending);
 
         return future;
     }
@@ -361,8 +375,15 @@ public abstract class StorageContainer {
     public <T> T retrieve(String path) {
         Objects.requireNonNull(path, "Cannot retrieve from null path!");
 
-        if(this.isCached(path)) {
-            return this.get(path);
+        //Gets through the cache so the lookup is counted, and used by the eviction policy.
+        CachedObject cachedObject = this.getCache().get(path);
+        if(cachedObject != null) {
+            return (T) cachedObject.getObject();
+        }
+
+        Object pending = this.getCache().getSetCache().get(path);
+        if(pending != null) {
+            return (T) pending;
         }
 
         T obj = (T) this.retrieveHook().getFunction().apply(path);
@@ -396,21 +417,11 @@ public abstract class StorageContainer {
             throw new IllegalArgumentException(type + " is not a supported storage class. Create a StorageDecomposer to implement behavior!");
         }
 
-        StorageDecomposer<?> decomposer = getDecomposer(type);
+        StorageDecomposer<T> decomposer = getDecomposer(type);
         if (decomposer != null) {
-            //Only append %path% if it doesn't already exist in the String.
-            //Also needs to be ran async so it doesn't block itself, very smart
-            CompletableFuture<CompletableFuture<T>> future = CompletableFuture.supplyAsync(() -> {
-                try {
-                    return (CompletableFuture<T>) decomposer.applyRecompose(this, path.contains("%path%") ? path : path + ".%path%");
-                } catch (ClassCastException e) {
-                    throw new ClassCastException("Unable to recompose! This can occur if you're using addRecomposeKey instead of addCompletedRecomposeKey when using retrieve. addRecomposeKey should use retrieveAsync and addCompletedRecomposeKey should use retrieve or a straight object.");
-                }
-            });
-
             try {
-                //Wait for the asynchronous future to be completed.
-                return future.get().get(5, TimeUnit.SECONDS);
+                //Only this thread waits, the recompose itself doesn't block any threads.
+                return this.recompose(decomposer, path).get(5, TimeUnit.SECONDS);
             } catch (InterruptedException | ExecutionException | TimeoutException e) {
                 e.printStackTrace();
             }
@@ -448,9 +459,110 @@ public abstract class StorageContainer {
      * @return The cast object from the path, or null if it doesn't exist.
      */
     public <T> CompletableFuture<T> retrieveAsync(Class<T> type, String path) {
+        StorageDecomposer<T> decomposer = getDecomposer(type);
+        if(decomposer != null) {
+            Objects.requireNonNull(path, "Cannot retrieve from null path!");
+            return this.recompose(decomposer, path);
+        }
+
         return CompletableFuture.supplyAsync(() -> this.retrieve(type, path));
     }
 
+    /**
+     * Retrieves multiple objects directly from the data source.
+     * Note: This method will not recompose {@link StorageDecomposer}s.
+     *
+     * Cached paths are returned from the cache, and every other path is retrieved together,
+     * in a single call if the container provides a {@link BatchRetrieveHook}.
+     *
+     * Note: This method is blocking, and will block until the data structure returns every object.
+     *
+     * @see StorageContainer#retrieveAllAsync(Collection) for retrieving data asynchronously.
+     *
+     * @param paths The paths to retrieve.
+     * @return A map of each path to its retrieved object, which is null if it doesn't exist.
+     */
+    public Map<String, Object> retrieveAll(Collection<String> paths) {
+        Objects.requireNonNull(paths, "Cannot retrieve null paths!");
+
+        Map<String, Object> retrieved = new HashMap<>();
+        List<String> remaining = new ArrayList<>();
+
+        for(String path : paths) {
+            Objects.requireNonNull(path, "Cannot retrieve from null path!");
+
+            CachedObject cachedObject = this.getCache().get(path);
+            if(cachedObject != null) {
+                retrieved.put(path, cachedObject.getObject());
+                continue;
+            }
+
+            Object pending = this.getCache().getSetCache().get(path);
+            if(pending != null) {
+                retrieved.put(path, pending);
+                continue;
+            }
+
+            remaining.add(path);
+        }
+
+        if(remaining.isEmpty()) return retrieved;
+
+        BatchRetrieveHook batchHook = this.batchRetrieveHook();
+        if(batchHook != null) {
+            Map<String, Object> batch = batchHook.getFunction().apply(remaining);
+            for(String path : remaining) {
+                Object obj = batch == null ? null : batch.get(path);
+                this.cacheRetrieve(path, obj);
+                retrieved.put(path, obj);
+            }
+            batchHook.complete();
+        } else {
+            RetrieveHook hook = this.retrieveHook();
+            for(String path : remaining) {
+                Object obj = hook.getFunction().apply(path);
+                this.cacheRetrieve(path, obj);
+                retrieved.put(path, obj);
+            }
+            hook.complete();
+        }
+
+        return retrieved;
+    }
+
+    /**
+     * Retrieves multiple objects directly from the data source.
+     * This method is executed asynchronously, and the future will be completed when the data has been returned.
+     * Note: This method will not recompose {@link StorageDecomposer}s.
+     *
+     * @see StorageContainer#retrieveAll(Collection)
+     *
+     * @param paths The paths to retrieve.
+     * @return A future, that when completed will contain a map of each path to its retrieved object.
+     */
+    public CompletableFuture<Map<String, Object>> retrieveAllAsync(Collection<String> paths) {
+        return CompletableFuture.supplyAsync(() -> this.retrieveAll(paths));
+    }
+
+    /**
+     * Recomposes an Object using a {@link StorageDecomposer}.
+     * Every path of the Object, including nested Objects, is retrieved together on the
+     * {@link StorageSettings#getRecomposeExecutor()}, and no thread is blocked while waiting for them.
+     *
+     * @see StorageContainer#retrieveAsync(Class, String) to recompose using the registered StorageDecomposer.
+     *
+     * @param <T> The type of Object to recompose.
+     * @param decomposer The StorageDecomposer to recompose with.
+     * @param path The path the Object was stored to. %path% will be appended if the path doesn't contain it.
+     * @return A {@link CompletableFuture} that will be completed with the recomposed Object, or null if the decomposer can't recompose.
+     */
+    public <T> CompletableFuture<T> recompose(StorageDecomposer<T> decomposer, String path) {
+        Objects.requireNonNull(decomposer, "Cannot recompose with null decomposer!");
+        Objects.requireNonNull(path, "Cannot retrieve from null path!");
+
+        return this.recomposer.recompose(decomposer, path.contains(PathTemplate.PLACEHOLDER) ? path : path + "." + PathTemplate.PLACEHOLDER);
+    }
+
     /**
      * Retrieves an object directly from the data source with implicit casting.
      * Note: This method will not recompose {@link StorageDecomposer}s.
@@ -620,9 +732,8 @@ public abstract class StorageContainer {
         StorageCache cache = this.getCache();
         FlushTask task = cache.getFlushTask();
 
-        if(task.canFlush()) {
+        if(task.tryStartFlush()) {
             cache.flush();
-            task.resetFlushCooldown();
         } else {
             task.queueFlush();
         }
@@ -664,6 +775,9 @@ public abstract class StorageContainer {
     public static void addStorageDecomposer(StorageDecomposer<?> decomposer) {
         getStorageDecomposers().removeIf(decomp -> decomp.getType() == decomposer.getType());
         getStorageDecomposers().add(decomposer);
+
+        //Only the decomposer's own type can be affected, since lookups are by exact class.
+        decomposerLookup.remove(decomposer.getType());
     }
 
     /**
@@ -678,7 +792,7 @@ public abstract class StorageContainer {
 
             return object;
         }, (container, recompose) -> {
-            recompose.addRecomposeKey("value", enumType, container::retrieveAsync);
+            recompose.addRecomposeKey("value", String.class);
 
             return recompose.onComplete(completed -> Enum.valueOf(enumType, completed.getCompletedObject("value")));
         }));
@@ -694,13 +808,13 @@ public abstract class StorageContainer {
     @SuppressWarnings("unchecked")
     public static <T> StorageDecomposer<T> getDecomposer(Class<T> clazz) {
         if(clazz == null) return null;
-        return getStorageDecomposers().stream()
-                .filter(decomposer -> decomposer.getType() == clazz)
-                .map(composer -> (StorageDecomposer<T>) composer)
-                .findFirst().orElse(null);
+        return (StorageDecomposer<T>) decomposerLookup.get(clazz).orElse(null);
     }
 
     /**
+     * Returns all registered {@link StorageDecomposer}s.
+     * Decomposers should be added using {@link StorageContainer#addStorageDecomposer(StorageDecomposer)}, since lookups are cached.
+     *
      * @return All registered {@link StorageDecomposer}s
      */
     public static List<StorageDecomposer<?>> getStorageDecomposers() {
@@ -724,12 +838,14 @@ public abstract class StorageContainer {
         StorageDecomposer<?> decomposer = data == null ? null : getDecomposer(data.getClass());
         DecomposedObject object = null;
 
+        //The template compiles each decomposed key once per parent path, instead of once per store.
+        PathTemplate template = decomposer == null ? null : decomposer.getChildTemplate(path);
+
         //Cache the data.
         if (decomposer != null) {
-            String decomposePath = path + ".%path%";
             object = decomposer.applyDecompose(data);
-            for (String decomposedPath : object.getDecomposedMap().keySet()) {
-                this.cacheStore(decomposePath.replace("%path%", decomposedPath), object.getDecomposedMap().get(decomposedPath));
+            for (Map.Entry<String, Object> decomposed : object.getDecomposedMap().entrySet()) {
+                this.cacheStore(template.compile(decomposed.getKey()), decomposed.getValue());
             }
         } else {
             this.cacheStore(path, data);
@@ -738,11 +854,9 @@ public abstract class StorageContainer {
         DecomposedObject finalObject = object;
         Bukkit.getScheduler().runTaskAsynchronously(StorageAPI.getPlugin(), () -> {
             if (decomposer != null) {
-                //Add the placeholder for each decomposed path.
-                String decomposePath = path + ".%path%";
-                for (String decomposedPath : finalObject.getDecomposedMap().keySet()) {
-                    String compiledPath = decomposePath.replace("%path%", decomposedPath);
-                    Object decomposedObject = finalObject.getDecomposedMap().get(decomposedPath);
+                for (Map.Entry<String, Object> decomposed : finalObject.getDecomposedMap().entrySet()) {
+                    String compiledPath = template.compile(decomposed.getKey());
+                    Object decomposedObject = decomposed.getValue();
 
                     if(decomposedObject != null) {
                         if(this instanceof ArrayContainer<?> arrayContainer && arrayContainer.isList(decomposedObject)) {
@@ -765,8 +879,7 @@ public abstract class StorageContainer {
         });
 
         //No need to update these later, since this should overwrite them.
-        this.getCache().getSetCache().remove(path);
-        this.getCache().getRemoveCache().remove(path);
+        this.getCache().discardPending(path);
 
         return future;
     }
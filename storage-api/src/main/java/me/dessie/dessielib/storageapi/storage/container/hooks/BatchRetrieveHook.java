@@ -0,0 +1,36 @@
+package me.dessie.dessielib.storageapi.storage.container.hooks;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Hooks into a {@link me.dessie.dessielib.storageapi.storage.container.StorageContainer}
+ * to specify how the StorageContainer should retrieve multiple paths from the data structure at once.
+ *
+ * This hook is optional. If you're creating your own StorageContainer implementation that can answer many paths
+ * in a single call, such as a single query, the hook will provide you every path that needs to be retrieved,
+ * and you should return a Map of each path to its Object. Paths that are missing from the Map are treated as null.
+ *
+ * If a StorageContainer doesn't provide this hook, each path is retrieved using its {@link RetrieveHook}.
+ */
+public class BatchRetrieveHook extends StorageHook<BatchRetrieveHook> {
+
+    private final Function<Collection<String>, Map<String, Object>> function;
+
+    /**
+     * @param function How the hook behaves when retrieving from the structure.
+     *                 The {@link Function} will accept the paths to the data, and should return a Map of each path to its Object.
+     *                 The Function can and should block the Thread to await the Objects.
+     */
+    public BatchRetrieveHook(Function<Collection<String>, Map<String, Object>> function) {
+        this.function = function;
+    }
+
+    /**
+     * @return The behavior {@link Function} for this hook.
+     */
+    public Function<Collection<String>, Map<String, Object>> getFunction() {
+        return function;
+    }
+}
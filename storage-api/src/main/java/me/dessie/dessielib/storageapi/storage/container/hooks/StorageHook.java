@@ -6,6 +6,7 @@ package me.dessie.dessielib.storageapi.storage.container.hooks;
  * @see StoreHook
  * @see RetrieveHook
  * @see DeleteHook
+ * @see BatchRetrieveHook
  *
  * @param <T> A StorageHook type
  */
@@ -0,0 +1,72 @@
+package me.dessie.dessielib.storageapi.storage.decomposition;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A precompiled path that contains a single {@link PathTemplate#PLACEHOLDER}, such as homes.cool_home.%path%
+ *
+ * The template is split around the placeholder once, and every compiled path is cached.
+ * Since a {@link StorageDecomposer} always decomposes into the same keys, compiling the same template
+ * again only costs a map lookup, instead of a {@link String#replace(CharSequence, CharSequence)} and a new String per key.
+ */
+public final class PathTemplate {
+
+    /**
+     * The placeholder that is replaced with each decomposed key.
+     */
+    public static final String PLACEHOLDER = "%path%";
+
+    private final String template;
+    private final String prefix;
+    private final String suffix;
+    private final Map<String, String> compiled = new ConcurrentHashMap<>();
+
+    /**
+     * @param template The template, which should contain {@link PathTemplate#PLACEHOLDER}.
+     *                 If it doesn't, the placeholder is treated as being at the end.
+     */
+    public PathTemplate(String template) {
+        Objects.requireNonNull(template, "Template cannot be null!");
+        this.template = template;
+
+        int index = template.indexOf(PLACEHOLDER);
+        this.prefix = index == -1 ? template : template.substring(0, index);
+        this.suffix = index == -1 ? "" : template.substring(index + PLACEHOLDER.length());
+    }
+
+    /**
+     * Creates a template for the children of a path, such as homes.cool_home becoming homes.cool_home.%path%
+     *
+     * @param parent The parent path.
+     * @return The template for the parent's children.
+     */
+    public static PathTemplate child(String parent) {
+        return new PathTemplate(parent + "." + PLACEHOLDER);
+    }
+
+    /**
+     * Replaces the placeholder with a key.
+     *
+     * @param key The key to replace the placeholder with.
+     * @return The compiled path.
+     */
+    public String compile(String key) {
+        String path = this.compiled.get(key);
+        if(path == null) {
+            path = this.compiled.computeIfAbsent(key, k -> this.prefix + k + this.suffix);
+        }
+        return path;
+    }
+
+    /**
+     * @return The uncompiled template.
+     */
+    public String getTemplate() {return template;}
+
+    @Override
+    public String toString() {
+        return this.template;
+    }
+}
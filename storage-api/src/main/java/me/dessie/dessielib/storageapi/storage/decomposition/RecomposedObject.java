@@ -3,6 +3,8 @@ package me.dessie.dessielib.storageapi.storage.decomposition;
 import me.dessie.dessielib.storageapi.storage.container.StorageContainer;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -31,6 +33,30 @@ public class RecomposedObject<T> {
     private final Map<String, Function<String, CompletableFuture<Object>>> recomposedMap = new HashMap<>();
     private final Map<String, CompletableFuture<Object>> pathCompleted = new HashMap<>();
     private final Map<String, Class<?>> pathTypes = new HashMap<>();
+    private final Set<String> retrievedKeys = new LinkedHashSet<>();
+
+    /**
+     * Adds a recomposed path that is retrieved from the {@link StorageContainer}.
+     *
+     * Unlike {@link RecomposedObject#addRecomposeKey(String, Class, Function)}, these paths are retrieved together
+     * with every other path of the object in a single task, and types with their own {@link StorageDecomposer} are
+     * recomposed as part of the same retrieve, without blocking a thread for each nested object.
+     *
+     * @param path The path to add to.
+     * @param type The type of Object to retrieve. If this type has a StorageDecomposer, it will be recomposed.
+     * @return The RecomposedObject instance.
+     */
+    public RecomposedObject<T> addRecomposeKey(String path, Class<?> type) {
+        Objects.requireNonNull(path, "Cannot add null path!");
+        Objects.requireNonNull(type, "Type cannot be null!");
+        if(this.getRecomposedMap().containsKey(path)) return this;
+
+        this.getPathTypes().put(path, type);
+        this.getRetrievedKeys().add(path);
+
+        this.getCompletedPath().put(path, new CompletableFuture<>());
+        return this;
+    }
 
     /**
      * Adds a recomposed path and function.
@@ -84,6 +110,7 @@ public class RecomposedObject<T> {
      */
     public RecomposedObject<T> removeRecomposedKey(String path) {
         this.getRecomposedMap().remove(path);
+        this.getRetrievedKeys().remove(path);
         this.getCompletedPath().remove(path);
         return this;
     }
@@ -143,7 +170,11 @@ public class RecomposedObject<T> {
     /**
      * @return All the current paths in the recompose map.
      */
-    public Set<String> getKeys() { return this.getRecomposedMap().keySet(); }
+    public Set<String> getKeys() {
+        Set<String> keys = new HashSet<>(this.getRecomposedMap().keySet());
+        keys.addAll(this.getRetrievedKeys());
+        return keys;
+    }
 
     /**
      * @return The entire Recompose map
@@ -152,6 +183,11 @@ public class RecomposedObject<T> {
         return recomposedMap;
     }
 
+    /**
+     * @return The paths that are retrieved from the container, added using {@link RecomposedObject#addRecomposeKey(String, Class)}.
+     */
+    public Set<String> getRetrievedKeys() {return retrievedKeys;}
+
     /**
      * @return The completed path map.
      */
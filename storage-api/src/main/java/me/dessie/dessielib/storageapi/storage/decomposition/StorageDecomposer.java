@@ -2,9 +2,9 @@ package me.dessie.dessielib.storageapi.storage.decomposition;
 
 import me.dessie.dessielib.storageapi.storage.container.StorageContainer;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -25,6 +25,12 @@ import java.util.function.Function;
  */
 public class StorageDecomposer<T> {
 
+    //The most templates each map holds, parent paths are usually per player so this stops them growing forever.
+    private static final int MAX_TEMPLATES = 1024;
+
+    private final Map<String, PathTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<String, PathTemplate> childTemplates = new ConcurrentHashMap<>();
+
     private final Class<T> type;
     private final Function<T, DecomposedObject> decomposeFunction;
     private final BiFunction<StorageContainer, RecomposedObject<T>, CompletableFuture<T>> recomposeFunction;
@@ -85,41 +91,42 @@ public class StorageDecomposer<T> {
      * @param container The container to retrieve data from.
      * @param path The path to retrieve data from for the recomposition.
      * @return A {@link CompletableFuture} that will complete when the recompose is finished, or null if the function does not exist.
+     * @see StorageContainer#recompose(StorageDecomposer, String)
      */
     public CompletableFuture<T> applyRecompose(StorageContainer container, String path) {
         if(this.getRecomposeFunction() == null) return null;
-        RecomposedObject<T> recomposedObject = new RecomposedObject<>();
-        CompletableFuture<T> completed = this.getRecomposeFunction().apply(container, recomposedObject);
-
-        List<CompletableFuture<?>> composedFutures = new ArrayList<>();
-        for(String compose : recomposedObject.getRecomposedMap().keySet()) {
-            String composedPath = path.replace("%path%", compose);
-
-            if(container.isCached(composedPath)) {
-                //Get the cached object
-                T cached = container.get(composedPath);
-
-                //Add the composed future with the cached object.
-                composedFutures.add(CompletableFuture.completedFuture(cached));
-
-                //Make sure the completed path is also notified of this completion, since we're not actually completing via retrieve.
-                recomposedObject.getCompletedPath().get(compose).complete(cached);
-            } else {
-                CompletableFuture<Object> future = recomposedObject.getRecomposedMap().get(compose).apply(composedPath);
-                composedFutures.add(future);
-
-                //Cache the object once its returned.
-                future.thenAccept(obj -> {
-                    container.cacheRetrieve(composedPath, obj);
-                });
-            }
-        }
+        return container.recompose(this, path);
+    }
 
-        CompletableFuture.allOf(composedFutures.toArray(new CompletableFuture<?>[]{})).thenRun(() -> {
-            completed.complete(recomposedObject.complete());
-        });
+    /**
+     * Returns the compiled {@link PathTemplate} for a template path, such as homes.cool_home.%path%
+     *
+     * @param template The template path.
+     * @return The PathTemplate, which is reused for the same template.
+     */
+    public PathTemplate getTemplate(String template) {
+        return getOrCompile(this.templates, template, PathTemplate::new);
+    }
 
-        return completed;
+    /**
+     * Returns the compiled {@link PathTemplate} for the children of a path.
+     * This is used when storing, so the decomposed keys of an object stored at homes.cool_home become homes.cool_home.key
+     *
+     * @param parent The path the object is stored at.
+     * @return The PathTemplate, which is reused for the same parent path.
+     */
+    public PathTemplate getChildTemplate(String parent) {
+        return getOrCompile(this.childTemplates, parent, PathTemplate::child);
+    }
+
+    private static PathTemplate getOrCompile(Map<String, PathTemplate> templates, String key, Function<String, PathTemplate> compiler) {
+        PathTemplate template = templates.get(key);
+        if(template != null) return template;
+
+        if(templates.size() >= MAX_TEMPLATES) {
+            templates.clear();
+        }
+        return templates.computeIfAbsent(key, compiler);
     }
 
     /**
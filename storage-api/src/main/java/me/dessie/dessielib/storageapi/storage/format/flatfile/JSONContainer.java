@@ -6,6 +6,7 @@ import me.dessie.dessielib.core.utils.json.JsonObjectBuilder;
 import me.dessie.dessielib.core.utils.tuple.Pair;
 import me.dessie.dessielib.storageapi.storage.container.RetrieveArrayContainer;
 import me.dessie.dessielib.storageapi.storage.container.StorageContainer;
+import me.dessie.dessielib.storageapi.storage.container.hooks.BatchRetrieveHook;
 import me.dessie.dessielib.storageapi.storage.container.hooks.DeleteHook;
 import me.dessie.dessielib.storageapi.storage.container.hooks.RetrieveHook;
 import me.dessie.dessielib.storageapi.storage.container.hooks.StoreHook;
@@ -26,6 +27,7 @@ public class JSONContainer extends RetrieveArrayContainer<JsonArray, JsonObject>
 
     private final Gson gson = new Gson().newBuilder().setPrettyPrinting().create();
     private final File json;
+    private final WriteBehindFile writer;
     private JsonObject object;
 
     /**
@@ -48,6 +50,7 @@ public class JSONContainer extends RetrieveArrayContainer<JsonArray, JsonObject>
     public JSONContainer(File jsonFile, StorageSettings settings) {
         super(settings);
         this.json = jsonFile;
+        this.writer = new WriteBehindFile(jsonFile, this::serialize, settings.getWriteBehindDelay());
 
         try {
             //Create the file.
@@ -92,23 +95,60 @@ public class JSONContainer extends RetrieveArrayContainer<JsonArray, JsonObject>
         return gson;
     }
 
+    /**
+     * Writes any changes that are waiting for the write behind delay, blocking until they have been written.
+     * This should be called before your plugin is disabled.
+     *
+     * @see StorageSettings#setWriteBehindDelay(int)
+     */
+    public void save() {
+        this.writer.save();
+    }
+
     @Override
     protected StoreHook storeHook() {
         return new StoreHook((path, data) -> {
             String[] tree = path.split("\\.");
-            if(this.getElement(String.join(".", Arrays.copyOfRange(tree, 0, tree.length - 1)), true) instanceof JsonObject object) {
-                object.add(tree[tree.length - 1], this.getGson().toJsonTree(data));
+            synchronized (this.getObject()) {
+                if(this.getElement(String.join(".", Arrays.copyOfRange(tree, 0, tree.length - 1)), true) instanceof JsonObject object) {
+                    object.add(tree[tree.length - 1], this.getGson().toJsonTree(data));
+                }
             }
-        }).onComplete(this::write);
+        }).onComplete(this.writer::markDirty);
     }
 
     @Override
     protected RetrieveHook retrieveHook() {
         return new RetrieveHook(path -> {
             String[] tree = path.split("\\.");
-            JsonObject retrieved = this.getRetrieveElement(path);
+            synchronized (this.getObject()) {
+                JsonObject retrieved = this.getRetrieveElement(path);
+
+                return retrieveCorrectly(retrieved, tree[tree.length - 1]);
+            }
+        });
+    }
+
+    @Override
+    protected BatchRetrieveHook batchRetrieveHook() {
+        return new BatchRetrieveHook(paths -> {
+            Map<String, Object> retrieved = new HashMap<>();
+            Map<String, JsonElement> parents = new HashMap<>();
+
+            synchronized (this.getObject()) {
+                for(String path : paths) {
+                    int split = path.lastIndexOf('.');
+                    String parent = split == -1 ? "" : path.substring(0, split);
+
+                    //Sibling paths share a parent, so the tree is only walked once for all of them.
+                    JsonElement element = parents.computeIfAbsent(parent, p -> p.isEmpty() ? this.getObject() : this.getElement(p, false));
+                    if(element instanceof JsonObject object) {
+                        retrieved.put(path, retrieveCorrectly(object, path.substring(split + 1)));
+                    }
+                }
+            }
 
-            return retrieveCorrectly(retrieved, tree[tree.length - 1]);
+            return retrieved;
         });
     }
 
@@ -116,15 +156,20 @@ public class JSONContainer extends RetrieveArrayContainer<JsonArray, JsonObject>
     protected DeleteHook deleteHook() {
         return new DeleteHook(path -> {
             String[] tree = path.split("\\.");
-            object.remove(tree[tree.length - 1]);
-        }).onComplete(this::write);
+            synchronized (this.getObject()) {
+                object.remove(tree[tree.length - 1]);
+            }
+        }).onComplete(this.writer::markDirty);
     }
 
     @Override
     public Set<String> getKeys(String path) {
-        if(this.getElement(path, false) instanceof JsonObject object) {
-            return object.keySet();
-        } else return new HashSet<>();
+        //Copy the keys, so they can be iterated while the write-behind modifies the document.
+        synchronized (this.getObject()) {
+            if(this.getElement(path, false) instanceof JsonObject object) {
+                return new LinkedHashSet<>(object.keySet());
+            } else return new HashSet<>();
+        }
     }
 
     @Override
@@ -215,8 +260,11 @@ public class JSONContainer extends RetrieveArrayContainer<JsonArray, JsonObject>
 
     @Override
     protected JsonArray getRetrieveListHandler(String path) {
-        if(this.getElement(path, false) instanceof JsonArray array) return array;
-        return new JsonArray();
+        //Copy the array, so it can be iterated while the write-behind modifies the document.
+        synchronized (this.getObject()) {
+            if(this.getElement(path, false) instanceof JsonArray array) return array.deepCopy();
+            return new JsonArray();
+        }
     }
 
     private Object retrieveCorrectly(JsonObject object, String key) {
@@ -269,13 +317,10 @@ public class JSONContainer extends RetrieveArrayContainer<JsonArray, JsonObject>
         return new JsonObjectBuilder().add(keys.get(keys.size() - 1), tree.get(keys.get(keys.size() - 1))).build();
     }
 
-    private void write() {
-        try {
-            FileWriter writer = new FileWriter(this.getJson());
-            this.getGson().toJson(this.getObject(), writer);
-            writer.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+    //Serializes under the object's lock, so hooks can't change it mid serialization.
+    private String serialize() {
+        synchronized (this.getObject()) {
+            return this.getGson().toJson(this.getObject());
         }
     }
 
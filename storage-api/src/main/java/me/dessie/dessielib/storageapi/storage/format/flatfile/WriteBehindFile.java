@@ -0,0 +1,110 @@
+package me.dessie.dessielib.storageapi.storage.format.flatfile;
+
+import me.dessie.dessielib.storageapi.StorageAPI;
+import org.bukkit.Bukkit;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Writes a flat file container's document to disk.
+ *
+ * Writes go to a temporary file that is atomically renamed over the real file, so a crash mid-write never truncates it.
+ * If a write behind delay is set, every change within the delay is coalesced into a single write on an async thread.
+ * At most one write is ever in flight for a file.
+ */
+class WriteBehindFile {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final Supplier<String> serializer;
+    private final int delay;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Object writeLock = new Object();
+
+    /**
+     * @param file The file to write to.
+     * @param serializer Serializes the document, this must be safe to call from any thread.
+     * @param delay How long, in seconds, to coalesce changes for before writing. 0 writes immediately.
+     */
+    WriteBehindFile(File file, Supplier<String> serializer, int delay) {
+        this.file = file;
+        this.serializer = serializer;
+        this.delay = delay;
+    }
+
+    /**
+     * Marks the document as changed, so it will be written.
+     * If there's no delay, the document is written before this returns.
+     */
+    void markDirty() {
+        this.dirty.set(true);
+
+        if(this.delay <= 0) {
+            this.save();
+        } else if(this.scheduled.compareAndSet(false, true)) {
+            Bukkit.getScheduler().runTaskLaterAsynchronously(StorageAPI.getPlugin(), () -> {
+                //Cleared before writing, so changes made during the write get their own window.
+                this.scheduled.set(false);
+                this.save();
+            }, this.delay * 20L);
+        }
+    }
+
+    /**
+     * Writes the document if it has changed since it was last written, blocking until it has been written.
+     */
+    void save() {
+        synchronized (this.writeLock) {
+            if(!this.dirty.getAndSet(false)) return;
+
+            try {
+                this.write(this.serializer.get());
+            } catch (IOException e) {
+                //Keep it dirty, so the next change or save tries again.
+                this.dirty.set(true);
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return If the document has changes that haven't been written yet.
+     */
+    boolean isDirty() {return this.dirty.get();}
+
+    private void write(String content) throws IOException {
+        Path target = this.file.toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            writer.write(content);
+            writer.flush();
+
+            //Make sure the contents are on disk before the rename makes them visible.
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
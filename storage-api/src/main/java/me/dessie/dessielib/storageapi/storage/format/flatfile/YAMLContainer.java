@@ -4,6 +4,7 @@ import me.dessie.dessielib.core.utils.tuple.Pair;
 import me.dessie.dessielib.storageapi.SectionSerializable;
 import me.dessie.dessielib.storageapi.storage.container.RetrieveArrayContainer;
 import me.dessie.dessielib.storageapi.storage.container.StorageContainer;
+import me.dessie.dessielib.storageapi.storage.container.hooks.BatchRetrieveHook;
 import me.dessie.dessielib.storageapi.storage.container.hooks.DeleteHook;
 import me.dessie.dessielib.storageapi.storage.container.hooks.RetrieveHook;
 import me.dessie.dessielib.storageapi.storage.container.hooks.StoreHook;
@@ -16,10 +17,7 @@ import org.bukkit.configuration.serialization.ConfigurationSerializable;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 
@@ -30,6 +28,7 @@ public class YAMLContainer extends RetrieveArrayContainer<List<Object>, Configur
 
     private final File yaml;
     private final YamlConfiguration configuration;
+    private final WriteBehindFile writer;
 
     /**
      * Creates a YAMLContainer that can be stored and retrieved from using the provided file.
@@ -52,6 +51,7 @@ public class YAMLContainer extends RetrieveArrayContainer<List<Object>, Configur
         super(settings);
         this.yaml = yamlFile;
         this.configuration = new YamlConfiguration();
+        this.writer = new WriteBehindFile(yamlFile, this::serialize, settings.getWriteBehindDelay());
 
         try {
             //Create the file.
@@ -84,41 +84,64 @@ public class YAMLContainer extends RetrieveArrayContainer<List<Object>, Configur
         return configuration;
     }
 
+    /**
+     * Writes any changes that are waiting for the write behind delay, blocking until they have been written.
+     * This should be called before your plugin is disabled.
+     *
+     * @see StorageSettings#setWriteBehindDelay(int)
+     */
+    public void save() {
+        this.writer.save();
+    }
+
     @Override
     protected StoreHook storeHook() {
         return new StoreHook((path, data) -> {
-            this.getConfiguration().set(path, data);
-        }).onComplete(() -> {
-            try {
-                this.getConfiguration().save(this.getYaml());
-            } catch (IOException e) {
-                e.printStackTrace();
+            synchronized (this.getConfiguration()) {
+                this.getConfiguration().set(path, data);
             }
-        });
+        }).onComplete(this.writer::markDirty);
     }
 
     @Override
     protected DeleteHook deleteHook() {
         return new DeleteHook((path) -> {
-            this.getConfiguration().set(path, null);
-        }).onComplete(() -> {
-            try {
-                this.getConfiguration().save(this.getYaml());
-            } catch (IOException e) {
-                e.printStackTrace();
+            synchronized (this.getConfiguration()) {
+                this.getConfiguration().set(path, null);
             }
-        });
+        }).onComplete(this.writer::markDirty);
     }
 
     @Override
     protected RetrieveHook retrieveHook() {
-        return new RetrieveHook(path -> this.getConfiguration().get(path));
+        return new RetrieveHook(path -> {
+            synchronized (this.getConfiguration()) {
+                return this.getConfiguration().get(path);
+            }
+        });
+    }
+
+    @Override
+    protected BatchRetrieveHook batchRetrieveHook() {
+        return new BatchRetrieveHook(paths -> {
+            Map<String, Object> retrieved = new HashMap<>();
+
+            //Every path is read under a single lock, instead of taking it once per path.
+            synchronized (this.getConfiguration()) {
+                for(String path : paths) {
+                    retrieved.put(path, this.getConfiguration().get(path));
+                }
+            }
+            return retrieved;
+        });
     }
 
     @Override
     public Set<String> getKeys(String path) {
-        ConfigurationSection section = this.getConfiguration().getConfigurationSection(path);
-        return section != null ? section.getKeys(false) : new HashSet<>();
+        synchronized (this.getConfiguration()) {
+            ConfigurationSection section = this.getConfiguration().getConfigurationSection(path);
+            return section != null ? new LinkedHashSet<>(section.getKeys(false)) : new HashSet<>();
+        }
     }
 
     @Override
@@ -129,12 +152,14 @@ public class YAMLContainer extends RetrieveArrayContainer<List<Object>, Configur
     @Override
     @SuppressWarnings("unchecked")
     protected List<Object> getRetrieveListHandler(String path) {
-        if(this.getConfiguration().get(path) != null && !this.getConfiguration().isList(path)) {
-            throw new IllegalArgumentException("List not found at path " + path);
-        }
+        //Copy the list, so it can be iterated while the write-behind modifies the document.
+        synchronized (this.getConfiguration()) {
+            if(this.getConfiguration().get(path) != null && !this.getConfiguration().isList(path)) {
+                throw new IllegalArgumentException("List not found at path " + path);
+            }
 
-        List<Object> list = this.getConfiguration().get(path) != null ? (List<Object>) this.getConfiguration().getList(path) : new ArrayList<>();
-        return list;
+            return this.getConfiguration().get(path) != null ? new ArrayList<>((List<Object>) this.getConfiguration().getList(path)) : new ArrayList<>();
+        }
     }
 
     @Override
@@ -220,4 +245,11 @@ public class YAMLContainer extends RetrieveArrayContainer<List<Object>, Configur
     public boolean isSupported(Class<?> clazz) {
         return super.isSupported(clazz) || ConfigurationSerializable.class.isAssignableFrom(clazz);
     }
+
+    //Serializes under the configuration's lock, so hooks can't change it mid serialization.
+    private String serialize() {
+        synchronized (this.getConfiguration()) {
+            return this.getConfiguration().saveToString();
+        }
+    }
 }
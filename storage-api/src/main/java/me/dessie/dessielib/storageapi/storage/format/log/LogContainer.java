@@ -0,0 +1,512 @@
+package me.dessie.dessielib.storageapi.storage.format.log;
+
+import me.dessie.dessielib.storageapi.StorageAPI;
+import me.dessie.dessielib.storageapi.storage.container.StorageContainer;
+import me.dessie.dessielib.storageapi.storage.container.hooks.BatchRetrieveHook;
+import me.dessie.dessielib.storageapi.storage.container.hooks.DeleteHook;
+import me.dessie.dessielib.storageapi.storage.container.hooks.RetrieveHook;
+import me.dessie.dessielib.storageapi.storage.container.hooks.StoreHook;
+import me.dessie.dessielib.storageapi.storage.settings.StorageSettings;
+import org.bukkit.Bukkit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link StorageContainer} that stores into an append-only binary log.
+ *
+ * Every store and delete appends a single record to the end of the log, so writes cost the size of the record
+ * instead of the size of the file. An in-memory index points each path to its latest record,
+ * and is rebuilt on startup by replaying the log.
+ *
+ * Overwritten and deleted records are garbage, and once the garbage ratio crosses the compaction threshold,
+ * the log is compacted in the background by copying only the live records into a new log.
+ *
+ * Values can be any primitive wrapper or String, other objects are stored through their {@link me.dessie.dessielib.storageapi.storage.decomposition.StorageDecomposer}.
+ */
+public class LogContainer extends StorageContainer {
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    //Each record starts with its payload length and the CRC32 of the payload.
+    private static final int HEADER_SIZE = 8;
+
+    //Logs smaller than this are never compacted, since there's little to gain.
+    private static final long MIN_COMPACT_SIZE = 1024 * 1024;
+
+    private final File log;
+    private final double compactionThreshold;
+
+    //Appends and compaction swaps synchronize on the append lock.
+    //Reads hold the read lock, so the channel and index can't be swapped while reading.
+    private final Object appendLock = new Object();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    //Only set under the append lock, so a compaction can't reopen the log once it's closed.
+    private volatile boolean closed;
+
+    private volatile FileChannel channel;
+    private volatile ConcurrentSkipListMap<String, Location> index = new ConcurrentSkipListMap<>();
+    private volatile long size;
+    private volatile long liveBytes;
+
+    /**
+     * Creates a LogContainer that can be stored and retrieved from using the provided file.
+     * This will use the default settings in {@link StorageSettings}, and compact once half of the log is garbage.
+     *
+     * @param logFile The log {@link File} that will be used for this Container.
+     */
+    public LogContainer(File logFile) {
+        this(logFile, new StorageSettings());
+    }
+
+    /**
+     * Creates a LogContainer that can be stored and retrieved from using the provided file.
+     * This will use the provided settings from {@link StorageSettings}, and compact once half of the log is garbage.
+     *
+     * @param logFile The log {@link File} that will be used for this Container.
+     * @param settings The StorageSettings for this Container.
+     */
+    public LogContainer(File logFile, StorageSettings settings) {
+        this(logFile, settings, 0.5);
+    }
+
+    /**
+     * Creates a LogContainer that can be stored and retrieved from using the provided file.
+     * This will use the provided settings from {@link StorageSettings}.
+     *
+     * @param logFile The log {@link File} that will be used for this Container.
+     * @param settings The StorageSettings for this Container.
+     * @param compactionThreshold The fraction of the log, between 0 and 1, that has to be garbage before it's compacted.
+     */
+    public LogContainer(File logFile, StorageSettings settings, double compactionThreshold) {
+        super(settings);
+
+        if(compactionThreshold <= 0 || compactionThreshold >= 1) {
+            throw new IllegalArgumentException("Compaction threshold must be between 0 and 1!");
+        }
+
+        this.log = logFile;
+        this.compactionThreshold = compactionThreshold;
+
+        try {
+            //Create the file.
+            if(this.getLog().getParentFile() != null) {
+                this.getLog().getParentFile().mkdirs();
+            }
+
+            this.channel = FileChannel.open(this.getLog().toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.replay();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return The log {@link File} that is being used for the container.
+     */
+    public File getLog() {
+        return log;
+    }
+
+    /**
+     * @return The fraction of the log that has to be garbage before it's compacted.
+     */
+    public double getCompactionThreshold() {return compactionThreshold;}
+
+    /**
+     * @return The size of the log, in bytes.
+     */
+    public long getLogSize() {return size;}
+
+    /**
+     * @return The fraction of the log, between 0 and 1, that is overwritten or deleted records.
+     */
+    public double getGarbageRatio() {
+        long size = this.size;
+        return size == 0 ? 0 : 1 - (double) this.liveBytes / size;
+    }
+
+    @Override
+    protected StoreHook storeHook() {
+        return new StoreHook((path, data) -> this.append(PUT, path, data)).onComplete(this::sync);
+    }
+
+    @Override
+    protected RetrieveHook retrieveHook() {
+        return new RetrieveHook(path -> {
+            this.lock.readLock().lock();
+            try {
+                Location location = this.index.get(path);
+                if(location == null) return null;
+
+                return this.readRecord(this.channel, location.offset(), location.length()).value();
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    protected BatchRetrieveHook batchRetrieveHook() {
+        return new BatchRetrieveHook(paths -> {
+            Map<String, Object> retrieved = new HashMap<>();
+
+            //Every path is read under a single read lock, so a compaction can't swap the file part way through.
+            this.lock.readLock().lock();
+            try {
+                for(String path : paths) {
+                    Location location = this.index.get(path);
+                    if(location == null) continue;
+
+                    retrieved.put(path, this.readRecord(this.channel, location.offset(), location.length()).value());
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                this.lock.readLock().unlock();
+            }
+
+            return retrieved;
+        });
+    }
+
+    @Override
+    protected DeleteHook deleteHook() {
+        return new DeleteHook(path -> this.append(DELETE, path, null)).onComplete(this::sync);
+    }
+
+    @Override
+    public Set<String> getKeys(String path) {
+        String prefix = path.isEmpty() ? "" : path + ".";
+        Set<String> keys = new LinkedHashSet<>();
+
+        //The index is sorted, so every path below the prefix is in a single range.
+        for(String key : this.index.subMap(prefix, true, prefix + Character.MAX_VALUE, false).keySet()) {
+            String remaining = key.substring(prefix.length());
+            int end = remaining.indexOf('.');
+            keys.add(end == -1 ? remaining : remaining.substring(0, end));
+        }
+
+        return keys;
+    }
+
+    /**
+     * Rewrites the log with only its live records, removing all garbage.
+     * Stores and deletes can continue while the log is being compacted.
+     *
+     * This is called automatically on an async thread once the garbage ratio crosses the compaction threshold.
+     */
+    public void compact() {
+        if(this.closed || !this.compacting.compareAndSet(false, true)) return;
+
+        try {
+            this.rewrite();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            this.compacting.set(false);
+        }
+    }
+
+    /**
+     * Closes the log. The container can't be used after it's been closed.
+     */
+    public void close() {
+        synchronized (this.appendLock) {
+            if(this.closed) return;
+            this.closed = true;
+
+            this.lock.writeLock().lock();
+            try {
+                this.channel.force(true);
+                this.channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void append(byte operation, String path, Object value) {
+        byte[] record;
+        try {
+            record = encode(operation, path, value);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        synchronized (this.appendLock) {
+            if(this.closed) throw new IllegalStateException("Cannot write to a closed LogContainer!");
+
+            try {
+                long offset = this.size;
+                writeFully(this.channel, ByteBuffer.wrap(record), offset);
+
+                this.size = offset + record.length;
+                this.liveBytes += apply(this.index, operation, path, new Location(offset, record.length));
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+
+        if(!this.closed && this.size >= MIN_COMPACT_SIZE && this.getGarbageRatio() > this.getCompactionThreshold() && !this.compacting.get()) {
+            Bukkit.getScheduler().runTaskAsynchronously(StorageAPI.getPlugin(), this::compact);
+        }
+    }
+
+    private void sync() {
+        this.lock.readLock().lock();
+        try {
+            this.channel.force(false);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    //Rebuilds the index from the log, truncating a record that was only partially written before a crash.
+    private void replay() throws IOException {
+        long fileSize = this.channel.size();
+        long position = 0;
+        long live = 0;
+
+        while (position + HEADER_SIZE <= fileSize) {
+            Record record = this.readRecord(this.channel, position, -1);
+            if(record == null || position + record.length() > fileSize) break;
+
+            live += apply(this.index, record.operation(), record.path(), new Location(position, record.length()));
+            position += record.length();
+        }
+
+        if(position < fileSize) {
+            this.channel.truncate(position);
+        }
+
+        this.size = position;
+        this.liveBytes = live;
+    }
+
+    private void rewrite() throws IOException {
+        Path target = this.getLog().toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".compact");
+
+        Map<String, Location> snapshot;
+        long end;
+        synchronized (this.appendLock) {
+            if(this.closed) return;
+
+            snapshot = new TreeMap<>(this.index);
+            end = this.size;
+        }
+
+        ConcurrentSkipListMap<String, Location> compacted = new ConcurrentSkipListMap<>();
+        long position = 0;
+        long live = 0;
+
+        FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            //Copy the live records without blocking appends, the old log is append-only so the records won't change.
+            for(Map.Entry<String, Location> entry : snapshot.entrySet()) {
+                ByteBuffer record = this.readRaw(entry.getValue().offset(), entry.getValue().length());
+                writeFully(out, record, position);
+
+                compacted.put(entry.getKey(), new Location(position, entry.getValue().length()));
+                position += entry.getValue().length();
+                live += entry.getValue().length();
+            }
+
+            synchronized (this.appendLock) {
+                //The log was closed while the snapshot was being copied, so don't swap in or reopen anything.
+                if(this.closed) return;
+
+                //Copy anything that was appended while the snapshot was being copied.
+                for(long tail = end; tail < this.size;) {
+                    Record record = this.readRecord(this.channel, tail, -1);
+                    if(record == null) throw new IOException("Corrupt record at " + tail + " while compacting!");
+
+                    writeFully(out, this.readRaw(tail, record.length()), position);
+                    live += apply(compacted, record.operation(), record.path(), new Location(position, record.length()));
+
+                    position += record.length();
+                    tail += record.length();
+                }
+
+                out.force(true);
+                out.close();
+
+                this.lock.writeLock().lock();
+                try {
+                    this.channel.close();
+                    try {
+                        try {
+                            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                        } catch (AtomicMoveNotSupportedException e) {
+                            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                        }
+
+                        this.index = compacted;
+                        this.size = position;
+                        this.liveBytes = live;
+                    } finally {
+                        //Reopen whichever log is now in place, the old one is kept if the move failed.
+                        this.channel = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    }
+                } finally {
+                    this.lock.writeLock().unlock();
+                }
+            }
+        } finally {
+            out.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private ByteBuffer readRaw(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        this.lock.readLock().lock();
+        try {
+            readFully(this.channel, buffer, offset);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Reads a record from the channel.
+     *
+     * @param channel The channel to read from.
+     * @param offset The offset the record starts at.
+     * @param length The full length of the record, or -1 if it isn't known yet.
+     * @return The record, or null if it was only partially written or is corrupt.
+     */
+    private Record readRecord(FileChannel channel, long offset, int length) throws IOException {
+        if(length == -1) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if(readFully(channel, header, offset) < HEADER_SIZE) return null;
+
+            int payloadLength = header.flip().getInt();
+            if(payloadLength <= 0 || offset + HEADER_SIZE + payloadLength > channel.size()) return null;
+            length = HEADER_SIZE + payloadLength;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        if(readFully(channel, buffer, offset) < length) return null;
+        buffer.flip();
+
+        int payloadLength = buffer.getInt();
+        int checksum = buffer.getInt();
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, payloadLength);
+        if((int) crc.getValue() != checksum) return null;
+
+        byte operation = buffer.get();
+        String path = ValueCodec.readString(buffer);
+        Object value = operation == PUT ? ValueCodec.read(buffer) : null;
+
+        return new Record(operation, path, value, length);
+    }
+
+    //Applies a record to an index, returning how much the live bytes of the log changed.
+    private static long apply(NavigableMap<String, Location> index, byte operation, String path, Location location) {
+        if(operation == PUT) {
+            Location previous = index.put(path, location);
+            return location.length() - (previous == null ? 0 : previous.length());
+        }
+
+        //Deletes remove the path and everything below it, and the delete record itself is garbage.
+        long removed = 0;
+        Location previous = index.remove(path);
+        if(previous != null) removed += previous.length();
+
+        NavigableMap<String, Location> children = index.subMap(path + ".", true, path + "." + Character.MAX_VALUE, false);
+        for(Location child : children.values()) {
+            removed += child.length();
+        }
+        children.clear();
+
+        return -removed;
+    }
+
+    private static byte[] encode(byte operation, String path, Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        //Reserve the header, and fill it in once the payload is known.
+        out.writeLong(0);
+        out.writeByte(operation);
+        ValueCodec.writeString(out, path);
+        if(operation == PUT) {
+            ValueCodec.write(out, value);
+        }
+
+        ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+        int payloadLength = record.capacity() - HEADER_SIZE;
+
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_SIZE, payloadLength);
+        record.putInt(0, payloadLength);
+        record.putInt(4, (int) crc.getValue());
+
+        return record.array();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int read = 0;
+        while (buffer.hasRemaining()) {
+            int amount = channel.read(buffer, position + read);
+            if(amount == -1) break;
+            read += amount;
+        }
+        return read;
+    }
+
+    /**
+     * Where a record is in the log.
+     *
+     * @param offset The offset the record starts at.
+     * @param length The full length of the record, including its header.
+     */
+    private record Location(long offset, int length) {}
+
+    /**
+     * A decoded record.
+     *
+     * @param operation If the record is a store or a delete.
+     * @param path The path of the record.
+     * @param value The stored value, or null for deletes.
+     * @param length The full length of the record, including its header.
+     */
+    private record Record(byte operation, String path, Object value, int length) {}
+}
@@ -0,0 +1,137 @@
+package me.dessie.dessielib.storageapi.storage.format.log;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes and decodes the values that binary containers can hold.
+ *
+ * Values are a single type tag followed by the value, so any primitive wrapper, String, null, or List of those can be stored.
+ * Other objects are stored by the {@link me.dessie.dessielib.storageapi.storage.container.StorageContainer} as their decomposed primitives.
+ */
+public final class ValueCodec {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte SHORT = 6;
+    private static final byte BYTE = 7;
+    private static final byte BOOLEAN = 8;
+    private static final byte CHARACTER = 9;
+    private static final byte LIST = 10;
+
+    private ValueCodec() {}
+
+    /**
+     * Writes a value.
+     *
+     * @param out The stream to write to.
+     * @param value The value to write.
+     * @throws IOException If the stream throws an IOException.
+     * @throws IllegalArgumentException If the value is not a primitive wrapper, String, null or List of those.
+     */
+    public static void write(DataOutputStream out, Object value) throws IOException {
+        if(value == null) {
+            out.writeByte(NULL);
+        } else if(value instanceof String string) {
+            out.writeByte(STRING);
+            writeString(out, string);
+        } else if(value instanceof Integer integer) {
+            out.writeByte(INTEGER);
+            out.writeInt(integer);
+        } else if(value instanceof Long l) {
+            out.writeByte(LONG);
+            out.writeLong(l);
+        } else if(value instanceof Double d) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(d);
+        } else if(value instanceof Float f) {
+            out.writeByte(FLOAT);
+            out.writeFloat(f);
+        } else if(value instanceof Short s) {
+            out.writeByte(SHORT);
+            out.writeShort(s);
+        } else if(value instanceof Byte b) {
+            out.writeByte(BYTE);
+            out.writeByte(b);
+        } else if(value instanceof Boolean b) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(b);
+        } else if(value instanceof Character c) {
+            out.writeByte(CHARACTER);
+            out.writeChar(c);
+        } else if(value instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for(Object element : list) {
+                write(out, element);
+            }
+        } else {
+            throw new IllegalArgumentException(value.getClass() + " cannot be written as a binary value!");
+        }
+    }
+
+    /**
+     * Reads a value, advancing the buffer's position past it.
+     *
+     * @param buffer The buffer to read from.
+     * @return The value that was read.
+     * @throws IllegalStateException If the buffer doesn't contain a valid value.
+     */
+    public static Object read(ByteBuffer buffer) {
+        byte type = buffer.get();
+        return switch (type) {
+            case NULL -> null;
+            case STRING -> readString(buffer);
+            case INTEGER -> buffer.getInt();
+            case LONG -> buffer.getLong();
+            case DOUBLE -> buffer.getDouble();
+            case FLOAT -> buffer.getFloat();
+            case SHORT -> buffer.getShort();
+            case BYTE -> buffer.get();
+            case BOOLEAN -> buffer.get() != 0;
+            case CHARACTER -> buffer.getChar();
+            case LIST -> {
+                int size = buffer.getInt();
+                List<Object> list = new ArrayList<>(size);
+                for(int i = 0; i < size; i++) {
+                    list.add(read(buffer));
+                }
+                yield list;
+            }
+            default -> throw new IllegalStateException("Unknown value type " + type + "!");
+        };
+    }
+
+    /**
+     * Writes a String as its UTF-8 length and bytes, without the 64KB limit of {@link DataOutputStream#writeUTF(String)}.
+     *
+     * @param out The stream to write to.
+     * @param string The String to write.
+     * @throws IOException If the stream throws an IOException.
+     */
+    public static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a String written by {@link ValueCodec#writeString(DataOutputStream, String)}.
+     *
+     * @param buffer The buffer to read from.
+     * @return The String that was read.
+     */
+    public static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,356 @@
+package me.dessie.dessielib.storageapi.storage.format.mapped;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import me.dessie.dessielib.storageapi.storage.container.StorageContainer;
+import me.dessie.dessielib.storageapi.storage.container.hooks.DeleteHook;
+import me.dessie.dessielib.storageapi.storage.container.hooks.RetrieveHook;
+import me.dessie.dessielib.storageapi.storage.container.hooks.StoreHook;
+import me.dessie.dessielib.storageapi.storage.format.flatfile.JSONContainer;
+import me.dessie.dessielib.storageapi.storage.format.flatfile.YAMLContainer;
+import me.dessie.dessielib.storageapi.storage.format.log.ValueCodec;
+import me.dessie.dessielib.storageapi.storage.settings.StorageSettings;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A read-only {@link StorageContainer} that memory-maps a compact binary snapshot.
+ *
+ * Snapshots are built from a {@link JSONContainer} or {@link YAMLContainer} using {@link MappedContainer#build(JSONContainer, File)}
+ * or {@link MappedContainer#build(YAMLContainer, File)}. Opening a snapshot only reads its path index,
+ * and values are decoded lazily from the mapped file when they're retrieved, so they stay off the heap until they're used.
+ *
+ * This is intended for large, read-mostly data such as item catalogs. Storing to or deleting from this container is not supported.
+ */
+public class MappedContainer extends StorageContainer {
+
+    //"DMAP"
+    private static final int MAGIC = 0x444D4150;
+    private static final int VERSION = 1;
+
+    //Magic, version, entry count and the index offset.
+    private static final int HEADER_SIZE = 20;
+
+    private final File snapshot;
+    private final MappedByteBuffer buffer;
+
+    //Sorted, so lookups and key listings are binary searches.
+    private final String[] paths;
+    private final int[] offsets;
+
+    /**
+     * Opens a snapshot that was built using one of the build methods.
+     * This will use the default settings in {@link StorageSettings}.
+     *
+     * @param snapshotFile The snapshot {@link File} to map.
+     * @throws IOException If the snapshot can't be read, or isn't a valid snapshot.
+     */
+    public MappedContainer(File snapshotFile) throws IOException {
+        this(snapshotFile, new StorageSettings());
+    }
+
+    /**
+     * Opens a snapshot that was built using one of the build methods.
+     * This will use the provided settings from {@link StorageSettings}.
+     *
+     * @param snapshotFile The snapshot {@link File} to map.
+     * @param settings The StorageSettings for this Container.
+     * @throws IOException If the snapshot can't be read, or isn't a valid snapshot.
+     */
+    public MappedContainer(File snapshotFile, StorageSettings settings) throws IOException {
+        super(settings);
+        this.snapshot = snapshotFile;
+
+        try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + snapshotFile.getName() + " is larger than 2GB!");
+            }
+
+            //The mapping stays valid after the channel is closed.
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        ByteBuffer header = this.buffer.duplicate();
+        if(header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            throw new IOException(snapshotFile.getName() + " is not a snapshot!");
+        }
+
+        int version = header.getInt();
+        if(version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + "!");
+        }
+
+        int entries = header.getInt();
+        long indexOffset = header.getLong();
+
+        this.paths = new String[entries];
+        this.offsets = new int[entries];
+
+        ByteBuffer index = this.buffer.duplicate().position((int) indexOffset);
+        for(int i = 0; i < entries; i++) {
+            this.paths[i] = ValueCodec.readString(index);
+            this.offsets[i] = index.getInt();
+        }
+    }
+
+    /**
+     * Builds a snapshot from every value in a {@link JSONContainer}.
+     * Values must be primitives, Strings, or arrays of those. Arrays of objects can't be snapshot.
+     *
+     * @param source The container to build the snapshot from.
+     * @param snapshotFile Where to write the snapshot. This is replaced atomically if it already exists.
+     * @throws IOException If the snapshot can't be written, or a value can't be snapshot.
+     */
+    public static void build(JSONContainer source, File snapshotFile) throws IOException {
+        Map<String, Object> entries = new TreeMap<>();
+        synchronized (source.getObject()) {
+            flatten(entries, "", source.getObject());
+        }
+
+        build(entries, snapshotFile);
+    }
+
+    /**
+     * Builds a snapshot from every value in a {@link YAMLContainer}.
+     * Values must be primitive wrappers, Strings, or Lists of those. Other values, such as ConfigurationSerializables, can't be snapshot.
+     *
+     * @param source The container to build the snapshot from.
+     * @param snapshotFile Where to write the snapshot. This is replaced atomically if it already exists.
+     * @throws IOException If the snapshot can't be written, or a value can't be snapshot.
+     */
+    public static void build(YAMLContainer source, File snapshotFile) throws IOException {
+        Map<String, Object> entries = new TreeMap<>();
+        YamlConfiguration configuration = source.getConfiguration();
+        synchronized (configuration) {
+            for(String path : configuration.getKeys(true)) {
+                Object value = configuration.get(path);
+                if(value == null || value instanceof ConfigurationSection) continue;
+
+                if(!isEncodable(value)) throw unsupported(path, value);
+                entries.put(path, value);
+            }
+        }
+
+        build(entries, snapshotFile);
+    }
+
+    /**
+     * Builds a snapshot from a map of dotted paths to values.
+     *
+     * @param entries The paths and values to write. Values must be primitive wrappers, Strings, or Lists of those.
+     * @param snapshotFile Where to write the snapshot. This is replaced atomically if it already exists.
+     * @throws IOException If the snapshot can't be written.
+     */
+    public static void build(Map<String, Object> entries, File snapshotFile) throws IOException {
+        SortedMap<String, Object> sorted = entries instanceof SortedMap<String, Object> map && map.comparator() == null ? map : new TreeMap<>(entries);
+
+        if(snapshotFile.getParentFile() != null) {
+            snapshotFile.getParentFile().mkdirs();
+        }
+
+        Path target = snapshotFile.toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        ByteArrayOutputStream values = new ByteArrayOutputStream();
+        DataOutputStream valueOut = new DataOutputStream(values);
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+
+        for(Map.Entry<String, Object> entry : sorted.entrySet()) {
+            ValueCodec.writeString(indexOut, entry.getKey());
+            indexOut.writeInt(HEADER_SIZE + valueOut.size());
+            ValueCodec.write(valueOut, entry.getValue());
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sorted.size());
+            out.writeLong(HEADER_SIZE + (long) values.size());
+            values.writeTo(out);
+            index.writeTo(out);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return The snapshot {@link File} that is mapped by this container.
+     */
+    public File getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return How many values are in the snapshot.
+     */
+    public int getSize() {return paths.length;}
+
+    //Writes are rejected before they reach the cache, so a retrieve can never return a value the snapshot doesn't have.
+
+    @Override
+    public void set(String path, Object data) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setAll(Map<String, Object> data) {
+        throw readOnly();
+    }
+
+    @Override
+    public void remove(String path) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeAll(List<String> paths) {
+        throw readOnly();
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String path, Object data) {
+        throw readOnly();
+    }
+
+    @Override
+    public CompletableFuture<Void> storeAll(Map<String, Object> data) {
+        throw readOnly();
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String path) {
+        throw readOnly();
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAll(List<String> paths) {
+        throw readOnly();
+    }
+
+    @Override
+    protected StoreHook storeHook() {
+        return new StoreHook((path, data) -> {
+            throw readOnly();
+        });
+    }
+
+    @Override
+    protected RetrieveHook retrieveHook() {
+        return new RetrieveHook(path -> {
+            int index = Arrays.binarySearch(this.paths, path);
+            if(index < 0) return null;
+
+            //Duplicates share the mapped memory, but have their own position so retrieves can run in parallel.
+            return ValueCodec.read(this.buffer.duplicate().position(this.offsets[index]));
+        });
+    }
+
+    @Override
+    protected DeleteHook deleteHook() {
+        return new DeleteHook(path -> {
+            throw readOnly();
+        });
+    }
+
+    @Override
+    public Set<String> getKeys(String path) {
+        String prefix = path.isEmpty() ? "" : path + ".";
+        Set<String> keys = new LinkedHashSet<>();
+
+        int start = Arrays.binarySearch(this.paths, prefix);
+        for(int i = start < 0 ? -start - 1 : start; i < this.paths.length && this.paths[i].startsWith(prefix); i++) {
+            String remaining = this.paths[i].substring(prefix.length());
+            int end = remaining.indexOf('.');
+            keys.add(end == -1 ? remaining : remaining.substring(0, end));
+        }
+
+        return keys;
+    }
+
+    private static void flatten(Map<String, Object> entries, String path, JsonObject object) throws IOException {
+        for(Map.Entry<String, JsonElement> entry : object.entrySet()) {
+            String childPath = path.isEmpty() ? entry.getKey() : path + "." + entry.getKey();
+
+            if(entry.getValue() instanceof JsonObject child) {
+                flatten(entries, childPath, child);
+                continue;
+            }
+
+            if(entry.getValue() instanceof JsonNull) continue;
+
+            Object value = toValue(entry.getValue());
+            if(value == null || !isEncodable(value)) throw unsupported(childPath, entry.getValue());
+            entries.put(childPath, value);
+        }
+    }
+
+    //Converts a JSON element the same way JSONContainer retrieves it, arrays of objects can't be snapshot.
+    private static Object toValue(JsonElement element) {
+        if(element instanceof JsonPrimitive primitive) {
+            if(primitive.isBoolean()) return primitive.getAsBoolean();
+            if(primitive.isString()) return primitive.getAsString();
+
+            BigDecimal number = primitive.getAsBigDecimal();
+            if(!primitive.getAsString().contains(".")) {
+                try {
+                    return number.intValueExact();
+                } catch (ArithmeticException ignored) {}
+
+                try {
+                    return number.longValueExact();
+                } catch (ArithmeticException ignored) {}
+            }
+            return number.doubleValue();
+        }
+
+        if(element instanceof JsonArray array) {
+            List<Object> list = new ArrayList<>();
+            for(JsonElement child : array) {
+                Object value = toValue(child);
+                if(value == null) return null;
+                list.add(value);
+            }
+            return list;
+        }
+
+        return null;
+    }
+
+    private static boolean isEncodable(Object value) {
+        if(value instanceof List<?> list) {
+            return list.stream().allMatch(MappedContainer::isEncodable);
+        }
+
+        return value == null || value instanceof String || value instanceof Integer || value instanceof Long || value instanceof Double
+                || value instanceof Float || value instanceof Short || value instanceof Byte || value instanceof Boolean || value instanceof Character;
+    }
+
+    private static IOException unsupported(String path, Object value) {
+        return new IOException("Cannot snapshot the value at " + path + ", " + value.getClass().getSimpleName() + " is not a primitive, String or List of those.");
+    }
+
+    private static IllegalStateException readOnly() {
+        return new IllegalStateException("MappedContainer is read-only, rebuild the snapshot to change it.");
+    }
+}
@@ -0,0 +1,264 @@
+package me.dessie.dessielib.storageapi.storage.format.mysql;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed size pool of JDBC {@link Connection}s used by a {@link MySQLContainer}.
+ *
+ * Each store, retrieve and delete borrows its own Connection, so concurrent operations
+ * no longer have to share, and serialize on, a single Connection.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    //Connections idle for longer than this are checked with the server before they're borrowed.
+    private static final long VALIDATE_AFTER_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final int VALIDATE_TIMEOUT_SECONDS = 5;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int size;
+    private final long borrowTimeout;
+
+    private final BlockingQueue<Connection> idle;
+    private final List<Connection> connections = new ArrayList<>();
+    private final Map<Connection, Long> lastUsed = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool of Connections to the provided JDBC url.
+     *
+     * @param url The JDBC url to connect to.
+     * @param username The username of the account to access the database with.
+     * @param password The password of the account to access the database with.
+     * @param size How many Connections the pool should hold.
+     * @throws SQLException In the case that a connection cannot be made.
+     */
+    public ConnectionPool(String url, String username, String password, int size) throws SQLException {
+        this(url, username, password, size, 30);
+    }
+
+    /**
+     * Creates a pool of Connections to the provided JDBC url.
+     *
+     * @param url The JDBC url to connect to.
+     * @param username The username of the account to access the database with.
+     * @param password The password of the account to access the database with.
+     * @param size How many Connections the pool should hold.
+     * @param borrowTimeout How long, in seconds, to wait for a free Connection before failing.
+     * @throws SQLException In the case that a connection cannot be made.
+     */
+    public ConnectionPool(String url, String username, String password, int size, long borrowTimeout) throws SQLException {
+        if(size < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1!");
+        }
+
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.size = size;
+        this.borrowTimeout = borrowTimeout;
+        this.idle = new ArrayBlockingQueue<>(size);
+
+        for(int i = 0; i < size; i++) {
+            Connection connection = this.connect();
+            this.connections.add(connection);
+            this.lastUsed.put(connection, System.currentTimeMillis());
+            this.idle.add(connection);
+        }
+    }
+
+    /**
+     * Creates a MySQL JDBC url, with prepared statement caching enabled on each Connection.
+     *
+     * @param database The name of the database to connect to.
+     * @param address The IP address of the database.
+     * @param port The port of the database.
+     * @param statementCacheSize How many prepared statements each Connection should cache.
+     * @return The JDBC url.
+     */
+    public static String createMySQLUrl(String database, String address, int port, int statementCacheSize) {
+        return "jdbc:mysql://" + address + ":" + port + "/" + database
+                + "?cachePrepStmts=true&useServerPrepStmts=true&prepStmtCacheSqlLimit=2048"
+                + "&prepStmtCacheSize=" + statementCacheSize
+                + "&rewriteBatchedStatements=true";
+    }
+
+    /**
+     * Borrows a Connection from the pool, waiting if none are free.
+     * The Connection must be given back using {@link ConnectionPool#release(Connection)}.
+     *
+     * @return A Connection that is only used by the caller until it's released.
+     * @throws SQLException If the pool is closed, or no Connection became free in time.
+     */
+    public Connection borrow() throws SQLException {
+        if(this.isClosed()) throw new SQLException("Connection pool is closed!");
+
+        Connection connection;
+        try {
+            connection = this.idle.poll(this.borrowTimeout, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection!", e);
+        }
+
+        if(connection == null) {
+            throw new SQLException("Timed out waiting for a connection after " + this.borrowTimeout + " seconds!");
+        }
+
+        //Replace connections that have been dropped by the server, such as after its wait_timeout.
+        if(!this.isAlive(connection)) {
+            try {
+                connection = this.replace(connection);
+            } catch (SQLException e) {
+                this.idle.offer(connection);
+                throw e;
+            }
+        }
+
+        return connection;
+    }
+
+    /**
+     * Returns a borrowed Connection to the pool.
+     *
+     * @param connection The Connection that was borrowed.
+     */
+    public void release(Connection connection) {
+        if(connection == null) return;
+
+        try {
+            //Don't give the next borrower a half finished transaction.
+            if(!connection.isClosed() && !connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        this.lastUsed.put(connection, System.currentTimeMillis());
+        this.idle.offer(connection);
+    }
+
+    /**
+     * Borrows a Connection, applies the function and releases the Connection.
+     *
+     * @param function The function to apply to the borrowed Connection.
+     * @param <T> The type the function returns.
+     * @return The result of the function.
+     * @throws SQLException If a Connection couldn't be borrowed, or the function throws an SQLException.
+     */
+    public <T> T withConnection(SQLFunction<T> function) throws SQLException {
+        Connection connection = this.borrow();
+        try {
+            return function.apply(connection);
+        } finally {
+            this.release(connection);
+        }
+    }
+
+    /**
+     * @return How many Connections are in the pool.
+     */
+    public int getSize() {return size;}
+
+    /**
+     * @return How many Connections are currently not borrowed.
+     */
+    public int getIdleCount() {return this.idle.size();}
+
+    /**
+     * @return If the pool has been closed.
+     */
+    public boolean isClosed() {return closed;}
+
+    /**
+     * Closes every Connection in the pool.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+
+        synchronized (this.connections) {
+            for(Connection connection : this.connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns any Connection in the pool without borrowing it.
+     * @return A Connection from the pool.
+     */
+    Connection getPrimary() {
+        synchronized (this.connections) {
+            return this.connections.get(0);
+        }
+    }
+
+    /**
+     * A dropped connection isn't closed until it's used, so connections that have been idle for a while are validated with the server.
+     *
+     * @return If the Connection can still be used.
+     */
+    private boolean isAlive(Connection connection) {
+        try {
+            if(connection.isClosed()) return false;
+
+            long idleFor = System.currentTimeMillis() - this.lastUsed.getOrDefault(connection, 0L);
+            return idleFor < VALIDATE_AFTER_MILLIS || connection.isValid(VALIDATE_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection replace(Connection old) throws SQLException {
+        Connection connection = this.connect();
+        synchronized (this.connections) {
+            this.connections.set(this.connections.indexOf(old), connection);
+        }
+
+        this.lastUsed.remove(old);
+        this.lastUsed.put(connection, System.currentTimeMillis());
+        try {
+            old.close();
+        } catch (SQLException ignored) {
+            //The server already dropped it.
+        }
+        return connection;
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(this.url, this.username, this.password);
+    }
+
+    /**
+     * A function that accepts a Connection and can throw an {@link SQLException}.
+     *
+     * @param <T> The type the function returns.
+     */
+    @FunctionalInterface
+    public interface SQLFunction<T> {
+
+        /**
+         * @param connection The borrowed Connection.
+         * @return The result of the function.
+         * @throws SQLException If an SQLException is thrown.
+         */
+        T apply(Connection connection) throws SQLException;
+    }
+}
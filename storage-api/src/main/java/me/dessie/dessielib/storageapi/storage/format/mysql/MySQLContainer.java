@@ -1,7 +1,9 @@
 package me.dessie.dessielib.storageapi.storage.format.mysql;
 
 import me.dessie.dessielib.core.utils.tuple.Pair;
+import me.dessie.dessielib.storageapi.StorageAPI;
 import me.dessie.dessielib.storageapi.storage.container.StorageContainer;
+import me.dessie.dessielib.storageapi.storage.container.hooks.BatchRetrieveHook;
 import me.dessie.dessielib.storageapi.storage.container.hooks.DeleteHook;
 import me.dessie.dessielib.storageapi.storage.container.hooks.RetrieveHook;
 import me.dessie.dessielib.storageapi.storage.container.hooks.StoreHook;
@@ -11,6 +13,7 @@ import me.dessie.dessielib.storageapi.storage.format.mysql.column.Column;
 import me.dessie.dessielib.storageapi.storage.format.mysql.column.ColumnPredicate;
 import me.dessie.dessielib.storageapi.storage.format.mysql.table.Table;
 import me.dessie.dessielib.storageapi.storage.settings.StorageSettings;
+import org.bukkit.Bukkit;
 
 import java.sql.*;
 import java.util.*;
@@ -28,9 +31,15 @@ public class MySQLContainer extends StorageContainer {
     //Pattern that tests for non-alphanumeric or underscore characters.
     private final static Pattern injection = Pattern.compile("\\W+");
 
-    private final Connection connection;
+    //The most values put into a single IN (...) clause when retrieving rows in bulk.
+    private final static int MAX_IN_PARAMETERS = 1000;
+
+    private final ConnectionPool pool;
     private final List<Table> tables = new ArrayList<>();
 
+    //Tables whose declared primary key is a primary or unique key in the database, so stores can be upserted.
+    private final Set<String> upsertTables = Collections.synchronizedSet(new HashSet<>());
+
     /**
      * Creates a MySQLContainer that can be stored and retrieved from using the provided database credentials.
      * This will use the default settings in {@link StorageSettings}.
@@ -59,8 +68,37 @@ public class MySQLContainer extends StorageContainer {
      * @throws SQLException In the case that a connection cannot be made.
      */
     public MySQLContainer(String database, String address, int port, String username, String password, StorageSettings settings) throws SQLException {
+        this(database, address, port, username, password, 1, settings);
+    }
+
+    /**
+     * Creates a MySQLContainer that can be stored and retrieved from using the provided database credentials.
+     * Operations are executed on a pool of Connections, so concurrent stores and retrieves won't block each other.
+     * This will use the provided settings from {@link StorageSettings}.
+     *
+     * @param database The name of the database to connect to.
+     * @param address The IP address of the database.
+     * @param port The port of the database.
+     * @param username The username of the account to access the database with.
+     * @param password The password of the account to access the database with.
+     * @param poolSize How many Connections should be opened to the database.
+     * @param settings The StorageSettings for this Container.
+     * @throws SQLException In the case that a connection cannot be made.
+     */
+    public MySQLContainer(String database, String address, int port, String username, String password, int poolSize, StorageSettings settings) throws SQLException {
+        this(new ConnectionPool(ConnectionPool.createMySQLUrl(database, address, port, 250), username, password, poolSize), settings);
+    }
+
+    /**
+     * Creates a MySQLContainer that executes its statements on the provided {@link ConnectionPool}.
+     * This will use the provided settings from {@link StorageSettings}.
+     *
+     * @param pool The ConnectionPool to use.
+     * @param settings The StorageSettings for this Container.
+     */
+    public MySQLContainer(ConnectionPool pool, StorageSettings settings) {
         super(settings);
-        this.connection = DriverManager.getConnection("jdbc:mysql://" + address + ":" + port + "/" + database, username, password);
+        this.pool = Objects.requireNonNull(pool, "Pool cannot be null!");
     }
 
     /**
@@ -270,6 +308,135 @@ public class MySQLContainer extends StorageContainer {
         return CompletableFuture.supplyAsync(() -> this.retrieve(type, table, predicates));
     }
 
+    /**
+     * Retrieves every Column of every row that matches any of the provided predicates, in a single query.
+     * Every returned cell is cached, so it can be obtained using {@link MySQLContainer#get(Table, Column, ColumnPredicate...)} afterwards.
+     *
+     * Note: This method is blocking, and will block until the database returns the rows.
+     *
+     * @see MySQLContainer#retrieveColumns(Table, List, Collection) for retrieving only specific Columns.
+     *
+     * @param table The MySQL {@link Table} to get data from.
+     * @param predicates The {@link ColumnPredicate}s to match rows against. All predicates must be on the same Column,
+     *                   such as one predicate per player UUID, and are combined as a WHERE column IN (...) clause.
+     * @return The matched rows, as a map of each Column to its value.
+     */
+    public List<Map<Column, Object>> retrieveRows(Table table, Collection<ColumnPredicate> predicates) {
+        Objects.requireNonNull(table, "Cannot retrieve from null table!");
+        return this.retrieveColumns(table, table.getColumns(), predicates);
+    }
+
+    /**
+     * Retrieves the provided Columns of every row that matches any of the provided predicates, in a single query.
+     * Every returned cell is cached, so it can be obtained using {@link MySQLContainer#get(Table, Column, ColumnPredicate...)} afterwards.
+     *
+     * Note: This method is blocking, and will block until the database returns the rows.
+     *
+     * @param table The MySQL {@link Table} to get data from.
+     * @param columns The {@link Column}s to get from each row.
+     * @param predicates The {@link ColumnPredicate}s to match rows against. All predicates must be on the same Column,
+     *                   such as one predicate per player UUID, and are combined as a WHERE column IN (...) clause.
+     * @return The matched rows, as a map of each Column to its value. Each map will also contain the predicate Column.
+     */
+    public List<Map<Column, Object>> retrieveColumns(Table table, List<Column> columns, Collection<ColumnPredicate> predicates) {
+        Objects.requireNonNull(table, "Cannot retrieve from null table!");
+        Objects.requireNonNull(columns, "Cannot retrieve null columns!");
+        Objects.requireNonNull(predicates, "Cannot retrieve with null predicates!");
+        if(columns.isEmpty()) { throw new IllegalArgumentException("You must provide atleast one column to retrieve!"); }
+
+        List<Map<Column, Object>> rows = new ArrayList<>();
+        if(predicates.isEmpty()) return rows;
+
+        Column key = predicates.iterator().next().getColumn();
+        if(predicates.stream().anyMatch(predicate -> !predicate.getColumn().getName().equals(key.getName()))) {
+            throw new IllegalArgumentException("All predicates must be for the same column!");
+        }
+
+        //The key column is always selected, since it's needed to build the cache paths.
+        List<Column> selected = new ArrayList<>(columns);
+        if(selected.stream().noneMatch(column -> column.getName().equals(key.getName()))) {
+            selected.add(key);
+        }
+        Column selectedKey = selected.stream().filter(column -> column.getName().equals(key.getName())).findFirst().orElse(key);
+
+        StringBuilder select = new StringBuilder();
+        selected.forEach(column -> select.append(column.getName()).append(","));
+        select.setLength(select.length() - 1);
+
+        List<ColumnPredicate> remaining = new ArrayList<>(predicates);
+        try {
+            this.getPool().withConnection(connection -> {
+                //Split very large IN lists, so a statement never exceeds the server's packet limits.
+                for(int start = 0; start < remaining.size(); start += MAX_IN_PARAMETERS) {
+                    List<ColumnPredicate> chunk = remaining.subList(start, Math.min(remaining.size(), start + MAX_IN_PARAMETERS));
+                    String params = "?,".repeat(chunk.size());
+
+                    try (PreparedStatement statement = connection.prepareStatement("SELECT " + select + " FROM " + table.getName()
+                            + " WHERE " + key.getName() + " IN (" + params.substring(0, params.length() - 1) + ")")) {
+                        for(int i = 0; i < chunk.size(); i++) {
+                            statement.setString(i + 1, chunk.get(i).getData().toString());
+                        }
+
+                        try (ResultSet results = statement.executeQuery()) {
+                            while (results.next()) {
+                                Map<Column, Object> row = new LinkedHashMap<>();
+                                for(Column column : selected) {
+                                    row.put(column, results.getObject(column.getName()));
+                                }
+
+                                this.cacheRow(table, selectedKey, row);
+                                rows.add(row);
+                            }
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return rows;
+    }
+
+    /**
+     * Retrieves every Column of every row that matches any of the provided predicates, in a single query.
+     * This method is executed asynchronously, and the future will be completed when the rows have been returned.
+     *
+     * @see MySQLContainer#retrieveRows(Table, Collection)
+     *
+     * @param table The MySQL {@link Table} to get data from.
+     * @param predicates The {@link ColumnPredicate}s to match rows against. All predicates must be on the same Column.
+     * @return The matched rows, as a map of each Column to its value.
+     */
+    public CompletableFuture<List<Map<Column, Object>>> retrieveRowsAsync(Table table, Collection<ColumnPredicate> predicates) {
+        return CompletableFuture.supplyAsync(() -> this.retrieveRows(table, predicates));
+    }
+
+    /**
+     * Retrieves the provided Columns of every row that matches any of the provided predicates, in a single query.
+     * This method is executed asynchronously, and the future will be completed when the rows have been returned.
+     *
+     * @see MySQLContainer#retrieveColumns(Table, List, Collection)
+     *
+     * @param table The MySQL {@link Table} to get data from.
+     * @param columns The {@link Column}s to get from each row.
+     * @param predicates The {@link ColumnPredicate}s to match rows against. All predicates must be on the same Column.
+     * @return The matched rows, as a map of each Column to its value.
+     */
+    public CompletableFuture<List<Map<Column, Object>>> retrieveColumnsAsync(Table table, List<Column> columns, Collection<ColumnPredicate> predicates) {
+        return CompletableFuture.supplyAsync(() -> this.retrieveColumns(table, columns, predicates));
+    }
+
+    //Caches each cell of a row under the same path that a single column retrieve would use.
+    private void cacheRow(Table table, Column key, Map<Column, Object> row) {
+        Object keyValue = row.get(key);
+        if(keyValue == null) return;
+
+        String clause = table.getName() + "." + key.getName() + "=" + keyValue + "#";
+        row.forEach((column, value) -> this.cacheRetrieve(clause + column.getName(), value));
+    }
+
     /**
      * Adds a {@link Table} into the MySQL database.
      *
@@ -279,9 +446,57 @@ public class MySQLContainer extends StorageContainer {
     public MySQLContainer addTable(Table table) {
         table.createTable();
         this.tables.add(table);
+
+        if(this.hasDatabaseKey(table)) {
+            this.upsertTables.add(table.getName());
+        }
         return this;
     }
 
+    /**
+     * The table may have already existed without the declared primary key, since tables are created IF NOT EXISTS.
+     * Without a matching key, an upsert would never find a duplicate and would insert a new row instead.
+     *
+     * @return If the database has a primary or unique key on exactly the Table's declared primary key columns.
+     */
+    private boolean hasDatabaseKey(Table table) {
+        if(table.getPrimaryKey().isEmpty()) return false;
+
+        Set<String> declared = new HashSet<>();
+        for(Column column : table.getPrimaryKey()) {
+            declared.add(column.getName().toLowerCase(Locale.ROOT));
+        }
+
+        try {
+            return this.getPool().withConnection(connection -> {
+                DatabaseMetaData metaData = connection.getMetaData();
+
+                Set<String> primaryKey = new HashSet<>();
+                try (ResultSet keys = metaData.getPrimaryKeys(connection.getCatalog(), null, table.getName())) {
+                    while(keys.next()) {
+                        primaryKey.add(keys.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                    }
+                }
+                if(primaryKey.equals(declared)) return true;
+
+                Map<String, Set<String>> uniqueKeys = new HashMap<>();
+                try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), null, table.getName(), true, false)) {
+                    while(indexes.next()) {
+                        String index = indexes.getString("INDEX_NAME");
+                        String column = indexes.getString("COLUMN_NAME");
+                        if(index == null || column == null) continue;
+
+                        uniqueKeys.computeIfAbsent(index, key -> new HashSet<>()).add(column.toLowerCase(Locale.ROOT));
+                    }
+                }
+                return uniqueKeys.containsValue(declared);
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
     /**
      * Checks if any row in the provided table matches all of the provided predicates.
      *
@@ -291,42 +506,33 @@ public class MySQLContainer extends StorageContainer {
      * @throws SQLException If an SQLException is thrown.
      */
     public CompletableFuture<Boolean> rowExists(String table, Map<String, String> predicates) throws SQLException {
-        CompletableFuture<Boolean> future = new CompletableFuture<>();
-
-        List<String> predicateKeys = new ArrayList<>(predicates.keySet());
-        String predicateBuilder = createPredicateString(predicateKeys);
-
-        int index = 1;
-        PreparedStatement statement = this.getConnection().prepareStatement("SELECT EXISTS(SELECT * FROM " + table + " WHERE " + predicateBuilder + ") AS result");
-
-        for(String key : predicateKeys) {
-            statement.setString(index++, predicates.get(key));
-        }
-
-        CompletableFuture.supplyAsync(() -> {
-            try {
-                return statement.executeQuery();
-            } catch (SQLException e) {
-                e.printStackTrace();
-                return null;
-            }
-        }).thenAccept(results -> {
+        return CompletableFuture.supplyAsync(() -> {
             try {
-                results.next();
-                future.complete(results.getBoolean("result"));
+                return this.getPool().withConnection(connection -> this.exists(connection, table, predicates));
             } catch (SQLException e) {
                 e.printStackTrace();
+                return false;
             }
         });
-
-        return future;
     }
 
     /**
-     * @return The MySQL {@link Connection}
+     * Returns a Connection from the pool without borrowing it.
+     * This Connection may be in use by another thread at the same time, so it should not be used for transactions.
+     *
+     * @deprecated Use {@link MySQLContainer#getPool()} to borrow a Connection instead.
+     * @return A MySQL {@link Connection} from the pool.
      */
+    @Deprecated
     public Connection getConnection() {
-        return connection;
+        return this.getPool().getPrimary();
+    }
+
+    /**
+     * @return The {@link ConnectionPool} that this Container executes statements with.
+     */
+    public ConnectionPool getPool() {
+        return pool;
     }
 
     /**
@@ -357,100 +563,16 @@ public class MySQLContainer extends StorageContainer {
     @Override
     protected StoreHook storeHook() {
         return new StoreHook((path, data) -> {
-            //Only accept if the path has paths and the data is an array of objects.
-            if(!path.contains(".") || !path.contains("#") || !(data instanceof Object[] objects)) throw new IllegalArgumentException("Path should be in the form of table.column=value;column=value#columntoset,columntoset");
-
-            String table;
-            Map<String, Object> mappedPath = new HashMap<>();
-            Map<String, String> predicates = new HashMap<>();
-
-            //Get the clause, which is the table name, and primary key column and value.
-            String clause = path.split("#")[0];
-            String toSet = path.split("#")[1];
-
-            //Get all the columns that we're going to set.
-            //For example, uuid,kills,deaths
-            String[] paths = (toSet.contains(",") ? toSet.split(",") : new String[] { toSet });
-
-            //Map these to the object array.
-            //For example, [1ea..., 5, 3]
-            //So the mappedPath should be, {uuid=1ea..., kills=5, deaths=3}
-            for(int i = 0; i < paths.length; i++) {
-                mappedPath.put(paths[i], objects[i]);
-            }
+            StorePath storePath = StorePath.parse(path, data);
 
-            //Map the predicates, for the WHERE clause.
-            String[] splitClause = clause.split("\\.");
-            table = splitClause[0];
-            for (String predicate : splitClause[1].split(";")) {
-                predicates.put(predicate.split("=")[0], predicate.split("=")[1]);
-            }
-
-            //Check if that row exists
             try {
+                this.getPool().withConnection(connection -> {
+                    PreparedStatement query = this.canUpsert(storePath.table(), storePath.predicates().keySet())
+                            ? this.prepareUpsert(connection, storePath.table(), storePath.values(), storePath.predicates())
+                            : this.prepareInsertOrUpdate(connection, storePath.table(), storePath.values(), storePath.predicates());
 
-                StringBuilder builder = new StringBuilder();
-                List<String> predicateKeys = new ArrayList<>(predicates.keySet());
-                List<String> keys = new ArrayList<>(mappedPath.keySet());
-
-                rowExists(table, predicates).thenAccept(exists -> {
-                    try {
-                        PreparedStatement query;
-                        if (!exists) {
-                            //The row does not exist, so we should insert.
-                            //These also should be within the path if we're inserting.
-                            predicateKeys.forEach(predicate -> {
-                                mappedPath.putIfAbsent(predicate, predicates.get(predicate));
-                                if(!keys.contains(predicate)) {
-                                    keys.add(predicate);
-                                }
-                            });
-
-                            //Build the query
-                            keys.forEach(s -> {
-                                builder.append(s).append(",");
-                            });
-                            builder.setLength(builder.length() - 1);
-
-                            String params = "?,".repeat(mappedPath.size());
-                            params = params.substring(0, params.length() - 1);
-
-                            query = this.getConnection().prepareStatement("INSERT INTO " + table + "(" + builder + ") VALUES (" + params + ")");
-
-                            //Fill the parameters.
-                            for (int i = 0; i < keys.size(); i++) {
-                                query.setObject(i + 1, mappedPath.get(keys.get(i)));
-                            }
-                        } else {
-                            //The row does exist, so we should update.
-                            //Don't update if no predicates were provided.
-                            if(predicates.size() == 0) throw new IllegalStateException("No predicates provided for update statement!");
-
-                            //Build the predicate statement.
-                            String predicateBuilder = createPredicateString(predicateKeys);
-
-                            keys.forEach(s -> {
-                                builder.append(s).append("=?,");
-                            });
-                            builder.setLength(builder.length() - 1);
-
-                            //If it does exist, update the table.
-                            query = this.getConnection().prepareStatement("UPDATE " + table + " SET " + builder + " WHERE " + predicateBuilder);
-
-                            //Fill the parameters.
-                            int i;
-                            for (i = 0; i < keys.size(); i++) {
-                                query.setObject(i + 1, mappedPath.get(keys.get(i)));
-                            }
-
-                            for(String key : predicateKeys) {
-                                query.setString(++i, predicates.get(key));
-                            }
-                        }
-
-                        query.executeUpdate();
-                    } catch (SQLException e) {
-                        e.printStackTrace();
+                    try (query) {
+                        return query.executeUpdate();
                     }
                 });
             } catch (SQLException e) {
@@ -467,7 +589,6 @@ public class MySQLContainer extends StorageContainer {
             String table = path.split("\\.")[0];
             Map<String, String> predicates = new HashMap<>();
             List<String> predicateKeys;
-            PreparedStatement statement;
             String builder;
 
             for (String predicate : path.split("\\.")[1].split(";")) {
@@ -477,12 +598,15 @@ public class MySQLContainer extends StorageContainer {
             predicateKeys = new ArrayList<>(predicates.keySet());
             builder = createPredicateString(predicateKeys);
             try {
-                statement = this.getConnection().prepareStatement("DELETE FROM " + table + " WHERE " + builder);
-                for(int i = 0; i < predicateKeys.size(); i++) {
-                    statement.setString(i + 1, predicates.get(predicateKeys.get(i)));
-                }
+                this.getPool().withConnection(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + table + " WHERE " + builder)) {
+                        for(int i = 0; i < predicateKeys.size(); i++) {
+                            statement.setString(i + 1, predicates.get(predicateKeys.get(i)));
+                        }
 
-                statement.executeUpdate();
+                        return statement.executeUpdate();
+                    }
+                });
             } catch (SQLException e) {
                 e.printStackTrace();
             }
@@ -498,9 +622,7 @@ public class MySQLContainer extends StorageContainer {
             String clause = path.split("\\.")[1];
             Map<String, String> predicates = new HashMap<>();
             String column = clause.split("#")[1];
-            PreparedStatement statement;
             List<String> predicateKeys;
-            ResultSet results;
 
             for(String predicate : clause.split("#")[0].split(";")) {
                 predicates.put(predicate.split("=")[0], predicate.split("=")[1]);
@@ -509,16 +631,17 @@ public class MySQLContainer extends StorageContainer {
             predicateKeys = new ArrayList<>(predicates.keySet());
 
             try {
-                statement = this.getConnection().prepareStatement("SELECT " + column + " FROM " + table + " WHERE " + createPredicateString(predicateKeys));
-                for(int i = 0; i < predicateKeys.size(); i++) {
-                    statement.setString(i + 1, predicates.get(predicateKeys.get(i)));
-                }
-
-                results = statement.executeQuery();
+                return this.getPool().withConnection(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement("SELECT " + column + " FROM " + table + " WHERE " + createPredicateString(predicateKeys))) {
+                        for(int i = 0; i < predicateKeys.size(); i++) {
+                            statement.setString(i + 1, predicates.get(predicateKeys.get(i)));
+                        }
 
-                if(results != null && results.next()) {
-                    return results.getObject(column);
-                } else return null;
+                        try (ResultSet results = statement.executeQuery()) {
+                            return results.next() ? results.getObject(column) : null;
+                        }
+                    }
+                });
             } catch (SQLException e) {
                 e.printStackTrace();
             }
@@ -528,6 +651,436 @@ public class MySQLContainer extends StorageContainer {
         });
     }
 
+    @Override
+    protected BatchRetrieveHook batchRetrieveHook() {
+        return new BatchRetrieveHook(paths -> {
+            //Paths on the same row only differ by their column, so each row is selected once with all of its columns.
+            Map<String, List<String>> rows = new LinkedHashMap<>();
+            for(String path : paths) {
+                if(!path.contains(".") || !path.contains("#")) throw new IllegalArgumentException("Path should be in the form of table.column=value;column=value#columntoget");
+
+                int split = path.indexOf('#');
+                rows.computeIfAbsent(path.substring(0, split), row -> new ArrayList<>()).add(path.substring(split + 1));
+            }
+
+            Map<String, Object> retrieved = new HashMap<>();
+            try {
+                this.getPool().withConnection(connection -> {
+                    for(Map.Entry<String, List<String>> row : rows.entrySet()) {
+                        String table = row.getKey().split("\\.")[0];
+                        Map<String, String> predicates = parsePredicates(row.getKey().split("\\.")[1]);
+                        List<String> predicateKeys = new ArrayList<>(predicates.keySet());
+
+                        try (PreparedStatement statement = connection.prepareStatement("SELECT " + String.join(",", row.getValue()) + " FROM " + table + " WHERE " + createPredicateString(predicateKeys))) {
+                            for(int i = 0; i < predicateKeys.size(); i++) {
+                                statement.setString(i + 1, predicates.get(predicateKeys.get(i)));
+                            }
+
+                            try (ResultSet results = statement.executeQuery()) {
+                                if(!results.next()) continue;
+
+                                for(String column : row.getValue()) {
+                                    retrieved.put(row.getKey() + "#" + column, results.getObject(column));
+                                }
+                            }
+                        }
+                    }
+                    return null;
+                });
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+
+            return retrieved;
+        });
+    }
+
+    /**
+     * Returns if a store to the table can be done as a single INSERT ... ON DUPLICATE KEY UPDATE statement.
+     * This is only possible if the predicates are exactly the Table's primary key, and the database has that key,
+     * otherwise a duplicate key would never be detected.
+     */
+    private boolean canUpsert(String tableName, Set<String> predicateKeys) {
+        Table table = this.getTable(tableName);
+        if(table == null || table.getPrimaryKey().isEmpty() || !this.upsertTables.contains(table.getName())) return false;
+
+        Set<String> primaryKey = new HashSet<>();
+        for(Column column : table.getPrimaryKey()) {
+            primaryKey.add(column.getName());
+        }
+
+        return primaryKey.equals(predicateKeys);
+    }
+
+    private PreparedStatement prepareUpsert(Connection connection, String table, Map<String, Object> values, Map<String, String> predicates) throws SQLException {
+        List<String> keys = getInsertKeys(values, predicates);
+        PreparedStatement query = connection.prepareStatement(createUpsertStatement(table, keys, predicates.keySet()));
+        bindInsert(query, keys, values, predicates);
+
+        return query;
+    }
+
+    /**
+     * @return The columns to insert, which are the columns being set, followed by any predicate columns that aren't being set.
+     */
+    private static List<String> getInsertKeys(Map<String, Object> values, Map<String, String> predicates) {
+        List<String> keys = new ArrayList<>(values.keySet());
+
+        //The key columns also need to be inserted.
+        predicates.keySet().forEach(predicate -> {
+            if(!keys.contains(predicate)) keys.add(predicate);
+        });
+
+        return keys;
+    }
+
+    private static String createUpsertStatement(String table, List<String> keys, Set<String> predicateKeys) {
+        StringBuilder update = new StringBuilder();
+        for(String key : keys) {
+            if(predicateKeys.contains(key)) continue;
+            update.append(key).append("=VALUES(").append(key).append("),");
+        }
+
+        //Nothing but the key is being set, so there's nothing to update if the row already exists.
+        if(update.isEmpty()) {
+            update.append(keys.get(0)).append("=").append(keys.get(0)).append(",");
+        }
+        update.setLength(update.length() - 1);
+
+        String params = "?,".repeat(keys.size());
+        return "INSERT INTO " + table + "(" + String.join(",", keys) + ") VALUES ("
+                + params.substring(0, params.length() - 1) + ") ON DUPLICATE KEY UPDATE " + update;
+    }
+
+    private static void bindInsert(PreparedStatement statement, List<String> keys, Map<String, Object> values, Map<String, String> predicates) throws SQLException {
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            statement.setObject(i + 1, values.containsKey(key) ? values.get(key) : predicates.get(key));
+        }
+    }
+
+    private PreparedStatement prepareInsertOrUpdate(Connection connection, String table, Map<String, Object> mappedPath, Map<String, String> predicates) throws SQLException {
+        StringBuilder builder = new StringBuilder();
+        List<String> predicateKeys = new ArrayList<>(predicates.keySet());
+        List<String> keys = new ArrayList<>(mappedPath.keySet());
+
+        PreparedStatement query;
+        if (!this.exists(connection, table, predicates)) {
+            //The row does not exist, so we should insert.
+            //These also should be within the path if we're inserting.
+            predicateKeys.forEach(predicate -> {
+                mappedPath.putIfAbsent(predicate, predicates.get(predicate));
+                if(!keys.contains(predicate)) {
+                    keys.add(predicate);
+                }
+            });
+
+            //Build the query
+            keys.forEach(s -> {
+                builder.append(s).append(",");
+            });
+            builder.setLength(builder.length() - 1);
+
+            String params = "?,".repeat(mappedPath.size());
+            params = params.substring(0, params.length() - 1);
+
+            query = connection.prepareStatement("INSERT INTO " + table + "(" + builder + ") VALUES (" + params + ")");
+
+            //Fill the parameters.
+            for (int i = 0; i < keys.size(); i++) {
+                query.setObject(i + 1, mappedPath.get(keys.get(i)));
+            }
+        } else {
+            //The row does exist, so we should update.
+            //Don't update if no predicates were provided.
+            if(predicates.size() == 0) throw new IllegalStateException("No predicates provided for update statement!");
+
+            //Build the predicate statement.
+            String predicateBuilder = createPredicateString(predicateKeys);
+
+            keys.forEach(s -> {
+                builder.append(s).append("=?,");
+            });
+            builder.setLength(builder.length() - 1);
+
+            //If it does exist, update the table.
+            query = connection.prepareStatement("UPDATE " + table + " SET " + builder + " WHERE " + predicateBuilder);
+
+            //Fill the parameters.
+            int i;
+            for (i = 0; i < keys.size(); i++) {
+                query.setObject(i + 1, mappedPath.get(keys.get(i)));
+            }
+
+            for(String key : predicateKeys) {
+                query.setString(++i, predicates.get(key));
+            }
+        }
+
+        return query;
+    }
+
+    private boolean exists(Connection connection, String table, Map<String, String> predicates) throws SQLException {
+        List<String> predicateKeys = new ArrayList<>(predicates.keySet());
+
+        try (PreparedStatement statement = connection.prepareStatement("SELECT EXISTS(SELECT * FROM " + table + " WHERE " + createPredicateString(predicateKeys) + ") AS result")) {
+            int index = 1;
+            for(String key : predicateKeys) {
+                statement.setString(index++, predicates.get(key));
+            }
+
+            try (ResultSet results = statement.executeQuery()) {
+                return results.next() && results.getBoolean("result");
+            }
+        }
+    }
+
+    /**
+     * Stores all the data using JDBC batches within a single transaction.
+     * Stores are grouped by their table, columns and predicates, so each group is sent as one batch.
+     *
+     * This is used when the cache is flushed, so a flush only takes a handful of round trips.
+     *
+     * @param data A map with all the paths and objects to store.
+     * @return A {@link CompletableFuture} that will be completed once all data has been stored.
+     */
+    @Override
+    public CompletableFuture<Void> storeAll(Map<String, Object> data) {
+        Objects.requireNonNull(data, "Cannot store null data!");
+
+        List<StorePath> paths = new ArrayList<>();
+        for(Map.Entry<String, Object> entry : data.entrySet()) {
+            paths.add(StorePath.parse(entry.getKey(), entry.getValue()));
+            this.cacheStore(entry.getKey(), entry.getValue());
+
+            //No need to update these later, since this should overwrite them.
+            this.getCache().discardPending(entry.getKey());
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Bukkit.getScheduler().runTaskAsynchronously(StorageAPI.getPlugin(), () -> {
+            try {
+                this.getPool().withConnection(connection -> {
+                    this.inTransaction(connection, () -> this.executeStoreBatches(connection, paths));
+                    return null;
+                });
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+
+            future.complete(null);
+        });
+
+        return this.completeStore(future);
+    }
+
+    /**
+     * Deletes all the paths using JDBC batches within a single transaction.
+     * Deletes are grouped by their table and predicates, so each group is sent as one batch.
+     *
+     * @param paths The paths to remove.
+     * @return A {@link CompletableFuture} that will be completed once the deletion has been finished.
+     */
+    @Override
+    public CompletableFuture<Void> deleteAll(List<String> paths) {
+        Objects.requireNonNull(paths, "Cannot delete from null path!");
+
+        //Group by the table and predicate columns, since those share a statement.
+        Map<String, List<Map<String, String>>> groups = new LinkedHashMap<>();
+        for(String path : paths) {
+            if(!path.contains(".")) throw new IllegalArgumentException("Path should be in the form of table.column=value;column=value");
+
+            String table = path.split("\\.")[0];
+            Map<String, String> predicates = parsePredicates(path.split("\\.")[1]);
+            groups.computeIfAbsent(table + "." + String.join(",", predicates.keySet()), key -> new ArrayList<>()).add(predicates);
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Bukkit.getScheduler().runTaskAsynchronously(StorageAPI.getPlugin(), () -> {
+            try {
+                this.getPool().withConnection(connection -> {
+                    this.inTransaction(connection, () -> {
+                        for(Map.Entry<String, List<Map<String, String>>> group : groups.entrySet()) {
+                            String table = group.getKey().substring(0, group.getKey().indexOf('.'));
+                            List<String> predicateKeys = new ArrayList<>(group.getValue().get(0).keySet());
+
+                            try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + table + " WHERE " + createPredicateString(predicateKeys))) {
+                                for(Map<String, String> predicates : group.getValue()) {
+                                    for(int i = 0; i < predicateKeys.size(); i++) {
+                                        statement.setString(i + 1, predicates.get(predicateKeys.get(i)));
+                                    }
+                                    statement.addBatch();
+                                }
+                                statement.executeBatch();
+                            }
+                        }
+                    });
+                    return null;
+                });
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+
+            if(this.getCache().getFlushTask().tryStartFlush()) {
+                this.deleteHook().complete();
+
+                future.complete(null);
+            } else {
+                CompletableFuture<Void> waiting = new CompletableFuture<>();
+                this.getCache().getFlushTask().addFuture(waiting);
+
+                waiting.thenRun(() -> future.complete(null));
+            }
+        });
+
+        //This should overwrite anything we've already cached to do.
+        paths.forEach(this.getCache()::discardPending);
+
+        return future;
+    }
+
+    private void executeStoreBatches(Connection connection, List<StorePath> paths) throws SQLException {
+        //Stores that set the same columns of the same table, with the same predicate columns, can share a statement.
+        Map<String, List<StorePath>> groups = new LinkedHashMap<>();
+        for(StorePath path : paths) {
+            groups.computeIfAbsent(path.getGroupKey(), key -> new ArrayList<>()).add(path);
+        }
+
+        for(List<StorePath> group : groups.values()) {
+            StorePath first = group.get(0);
+
+            if(this.canUpsert(first.table(), first.predicates().keySet())) {
+                List<String> keys = getInsertKeys(first.values(), first.predicates());
+                try (PreparedStatement query = connection.prepareStatement(createUpsertStatement(first.table(), keys, first.predicates().keySet()))) {
+                    for(StorePath path : group) {
+                        bindInsert(query, keys, path.values(), path.predicates());
+                        query.addBatch();
+                    }
+                    query.executeBatch();
+                }
+            } else {
+                this.executeUpdateThenInsert(connection, group);
+            }
+        }
+    }
+
+    /**
+     * Without a primary key to upsert on, every row is updated in one batch, and the rows that didn't exist are inserted in a second batch.
+     */
+    private void executeUpdateThenInsert(Connection connection, List<StorePath> group) throws SQLException {
+        StorePath first = group.get(0);
+        List<String> keys = new ArrayList<>(first.values().keySet());
+        List<String> predicateKeys = new ArrayList<>(first.predicates().keySet());
+        if(predicateKeys.isEmpty()) throw new IllegalStateException("No predicates provided for update statement!");
+
+        StringBuilder set = new StringBuilder();
+        keys.forEach(key -> set.append(key).append("=?,"));
+        set.setLength(set.length() - 1);
+
+        int[] updated;
+        try (PreparedStatement update = connection.prepareStatement("UPDATE " + first.table() + " SET " + set + " WHERE " + createPredicateString(predicateKeys))) {
+            for(StorePath path : group) {
+                int i;
+                for (i = 0; i < keys.size(); i++) {
+                    update.setObject(i + 1, path.values().get(keys.get(i)));
+                }
+
+                for(String key : predicateKeys) {
+                    update.setString(++i, path.predicates().get(key));
+                }
+                update.addBatch();
+            }
+            updated = update.executeBatch();
+        }
+
+        List<String> insertKeys = getInsertKeys(first.values(), first.predicates());
+
+        String params = "?,".repeat(insertKeys.size());
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + first.table() + "(" + String.join(",", insertKeys) + ") VALUES (" + params.substring(0, params.length() - 1) + ")")) {
+            boolean inserting = false;
+            for(int row = 0; row < group.size(); row++) {
+                //No rows matched, so the row needs to be inserted.
+                if(updated[row] != 0) continue;
+
+                StorePath path = group.get(row);
+                bindInsert(insert, insertKeys, path.values(), path.predicates());
+                insert.addBatch();
+                inserting = true;
+            }
+
+            if(inserting) insert.executeBatch();
+        }
+    }
+
+    private void inTransaction(Connection connection, SQLRunnable runnable) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            runnable.run();
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SQLRunnable {
+        void run() throws SQLException;
+    }
+
+    private static Map<String, String> parsePredicates(String clause) {
+        Map<String, String> predicates = new LinkedHashMap<>();
+        for (String predicate : clause.split(";")) {
+            predicates.put(predicate.split("=")[0], predicate.split("=")[1]);
+        }
+        return predicates;
+    }
+
+    /**
+     * A parsed store path, in the form of table.column=value;column=value#columntoset,columntoset
+     *
+     * @param table The name of the table.
+     * @param values The columns to set, and their values.
+     * @param predicates The columns and values of the WHERE clause.
+     */
+    private record StorePath(String table, Map<String, Object> values, Map<String, String> predicates) {
+
+        static StorePath parse(String path, Object data) {
+            //Only accept if the path has paths and the data is an array of objects.
+            if(!path.contains(".") || !path.contains("#") || !(data instanceof Object[] objects)) throw new IllegalArgumentException("Path should be in the form of table.column=value;column=value#columntoset,columntoset");
+
+            //Get the clause, which is the table name, and primary key column and value.
+            String clause = path.split("#")[0];
+            String toSet = path.split("#")[1];
+
+            //Get all the columns that we're going to set.
+            //For example, uuid,kills,deaths
+            String[] paths = (toSet.contains(",") ? toSet.split(",") : new String[] { toSet });
+
+            //Map these to the object array.
+            //For example, [1ea..., 5, 3]
+            //So the mapped values should be, {uuid=1ea..., kills=5, deaths=3}
+            Map<String, Object> values = new LinkedHashMap<>();
+            for(int i = 0; i < paths.length; i++) {
+                values.put(paths[i], objects[i]);
+            }
+
+            //Map the predicates, for the WHERE clause.
+            String[] splitClause = clause.split("\\.");
+            return new StorePath(splitClause[0], values, parsePredicates(splitClause[1]));
+        }
+
+        /**
+         * @return A key that is equal for every StorePath that can share a statement.
+         */
+        String getGroupKey() {
+            return table + "#" + String.join(",", values.keySet()) + "#" + String.join(",", predicates.keySet());
+        }
+    }
+
     @Override
     public Set<String> getKeys(String path) {
         return new HashSet<>();
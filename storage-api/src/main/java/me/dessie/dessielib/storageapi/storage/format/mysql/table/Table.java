@@ -6,8 +6,10 @@ import me.dessie.dessielib.storageapi.storage.format.mysql.column.Column;
 import me.dessie.dessielib.storageapi.storage.format.mysql.column.ColumnPredicate;
 import org.apache.commons.lang.StringUtils;
 
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +23,7 @@ import java.util.concurrent.CompletableFuture;
 public class Table {
 
     private final List<Column> columns = new ArrayList<>();
+    private final List<Column> primaryKey = new ArrayList<>();
     private final String name;
     private final MySQLContainer container;
 
@@ -55,11 +58,20 @@ public class Table {
                     .append(",");
         }
 
+        if(!this.getPrimaryKey().isEmpty()) {
+            columns.append("PRIMARY KEY (")
+                    .append(StringUtils.join(this.getPrimaryKey().stream().map(Column::getName).iterator(), ','))
+                    .append("),");
+        }
+
         columns.setLength(columns.length() - 1);
 
         try {
-            this.getContainer().getConnection().prepareStatement("CREATE TABLE IF NOT EXISTS " + this.getName() + " (" + columns + ")")
-                    .executeUpdate();
+            this.getContainer().getPool().withConnection(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement("CREATE TABLE IF NOT EXISTS " + this.getName() + " (" + columns + ")")) {
+                    return statement.executeUpdate();
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -76,6 +88,22 @@ public class Table {
         return this;
     }
 
+    /**
+     * Sets the primary key of the Table. The Columns should already be added to the Table.
+     * This must be called before the Table is created.
+     *
+     * If the {@link ColumnPredicate}s of a store are exactly the primary key,
+     * the store is done in a single INSERT ... ON DUPLICATE KEY UPDATE statement instead of checking if the row exists first.
+     *
+     * @param columns The Columns that make up the primary key.
+     * @return The Table instance.
+     */
+    public Table setPrimaryKey(Column... columns) {
+        this.primaryKey.clear();
+        this.primaryKey.addAll(List.of(columns));
+        return this;
+    }
+
     /**
      * Delegate method for {@link MySQLContainer#set(Table, Column, Object, ColumnPredicate...)}
      *
@@ -196,6 +224,48 @@ public class Table {
         return this.getContainer().retrieveAsync(type, this, predicates);
     }
 
+    /**
+     * Delegate method for {@link MySQLContainer#retrieveRows(Table, Collection)}
+     *
+     * @param predicates The {@link ColumnPredicate}s to match rows against. All predicates must be on the same Column.
+     * @return The matched rows, as a map of each Column to its value.
+     */
+    public List<Map<Column, Object>> retrieveRows(Collection<ColumnPredicate> predicates) {
+        return this.getContainer().retrieveRows(this, predicates);
+    }
+
+    /**
+     * Delegate method for {@link MySQLContainer#retrieveColumns(Table, List, Collection)}
+     *
+     * @param columns The {@link Column}s to get from each row.
+     * @param predicates The {@link ColumnPredicate}s to match rows against. All predicates must be on the same Column.
+     * @return The matched rows, as a map of each Column to its value.
+     */
+    public List<Map<Column, Object>> retrieveColumns(List<Column> columns, Collection<ColumnPredicate> predicates) {
+        return this.getContainer().retrieveColumns(this, columns, predicates);
+    }
+
+    /**
+     * Delegate method for {@link MySQLContainer#retrieveRowsAsync(Table, Collection)}
+     *
+     * @param predicates The {@link ColumnPredicate}s to match rows against. All predicates must be on the same Column.
+     * @return The matched rows, as a map of each Column to its value.
+     */
+    public CompletableFuture<List<Map<Column, Object>>> retrieveRowsAsync(Collection<ColumnPredicate> predicates) {
+        return this.getContainer().retrieveRowsAsync(this, predicates);
+    }
+
+    /**
+     * Delegate method for {@link MySQLContainer#retrieveColumnsAsync(Table, List, Collection)}
+     *
+     * @param columns The {@link Column}s to get from each row.
+     * @param predicates The {@link ColumnPredicate}s to match rows against. All predicates must be on the same Column.
+     * @return The matched rows, as a map of each Column to its value.
+     */
+    public CompletableFuture<List<Map<Column, Object>>> retrieveColumnsAsync(List<Column> columns, Collection<ColumnPredicate> predicates) {
+        return this.getContainer().retrieveColumnsAsync(this, columns, predicates);
+    }
+
     /**
      * Gets a registered {@link Column} by the specified name in the Table.
      *
@@ -209,6 +279,11 @@ public class Table {
      */
     public List<Column> getColumns() {return columns;}
 
+    /**
+     * @return The {@link Column}s that make up the primary key of the Table, or an empty List if it has none.
+     */
+    public List<Column> getPrimaryKey() {return primaryKey;}
+
     /**
      * @return The name of the Table
      */
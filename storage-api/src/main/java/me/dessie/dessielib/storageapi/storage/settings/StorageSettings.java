@@ -1,8 +1,17 @@
 package me.dessie.dessielib.storageapi.storage.settings;
 
+import me.dessie.dessielib.storageapi.StorageAPI;
 import me.dessie.dessielib.storageapi.storage.cache.StorageCache;
+import me.dessie.dessielib.storageapi.storage.cache.eviction.CacheWeigher;
+import me.dessie.dessielib.storageapi.storage.cache.eviction.EvictionPolicy;
+import me.dessie.dessielib.storageapi.storage.cache.eviction.LRUEvictionPolicy;
 import me.dessie.dessielib.storageapi.storage.container.StorageContainer;
 import me.dessie.dessielib.storageapi.storage.container.hooks.StorageHook;
+import org.bukkit.Bukkit;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
  * Defines the settings for a {@link StorageContainer}
@@ -14,6 +23,11 @@ import me.dessie.dessielib.storageapi.storage.container.hooks.StorageHook;
  *   - Cache Duration: 1 minute
  *   - Flush Rate: 5 minutes
  *   - Flush Cooldown: 5 seconds
+ *   - Max Entries: Unbounded
+ *   - Max Weight: Unbounded
+ *   - Eviction Policy: LRU
+ *   - Write Behind Delay: 0 seconds
+ *   - Recompose Executor: Bukkit's async scheduler
  *
  * Some containers will change these default settings.
  *
@@ -29,6 +43,15 @@ public class StorageSettings {
     private int flushRate;
     private int flushCooldown;
 
+    private int maxEntries;
+    private long maxWeight;
+    private CacheWeigher weigher;
+    private Supplier<EvictionPolicy> evictionPolicy;
+
+    private int writeBehindDelay;
+
+    private Executor recomposeExecutor;
+
     /**
      * Creates a settings instance for a {@link StorageContainer} with default settings.
      *
@@ -42,6 +65,14 @@ public class StorageSettings {
         this.flushRate = 300;
 
         this.flushCooldown = 5;
+
+        this.maxEntries = -1;
+        this.maxWeight = -1;
+        this.weigher = CacheWeigher.SINGLETON;
+        this.evictionPolicy = LRUEvictionPolicy::new;
+
+        this.writeBehindDelay = 0;
+        this.recomposeExecutor = task -> Bukkit.getScheduler().runTaskAsynchronously(StorageAPI.getPlugin(), task);
     }
 
     /**
@@ -139,6 +170,94 @@ public class StorageSettings {
         return this;
     }
 
+    /**
+     * Sets the most objects the {@link StorageCache} can hold.
+     * Once the cache is over this amount, objects are evicted using the {@link EvictionPolicy}.
+     *
+     * Objects that have been set, and haven't been flushed yet, are never evicted.
+     *
+     * @param maxEntries The most objects the cache can hold, or -1 to not limit the amount.
+     * @return The StorageSettings instance.
+     */
+    public StorageSettings setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+        return this;
+    }
+
+    /**
+     * Sets the most total weight the {@link StorageCache} can hold, where each object is weighed by the {@link CacheWeigher}.
+     * Once the cache is over this weight, objects are evicted using the {@link EvictionPolicy}.
+     *
+     * Objects that have been set, and haven't been flushed yet, are never evicted.
+     *
+     * @see StorageSettings#setWeigher(CacheWeigher)
+     *
+     * @param maxWeight The most weight the cache can hold, or -1 to not limit the weight.
+     * @return The StorageSettings instance.
+     */
+    public StorageSettings setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+        return this;
+    }
+
+    /**
+     * Sets how cached objects are weighed against {@link StorageSettings#setMaxWeight(long)}.
+     * By default, every object weighs 1.
+     *
+     * @param weigher The CacheWeigher to use.
+     * @return The StorageSettings instance.
+     */
+    public StorageSettings setWeigher(CacheWeigher weigher) {
+        this.weigher = Objects.requireNonNull(weigher, "Weigher cannot be null!");
+        return this;
+    }
+
+    /**
+     * Sets how the {@link StorageCache} chooses which object to evict once it's over its limits.
+     * A new policy is created for each cache, and is only used if the cache has a max entries or max weight.
+     *
+     * By default, the least recently used object is evicted.
+     * {@link me.dessie.dessielib.storageapi.storage.cache.eviction.TinyLFUEvictionPolicy} can be used to keep
+     * frequently used objects cached through large one-off retrieves.
+     *
+     * @param evictionPolicy Creates the EvictionPolicy for a cache.
+     * @return The StorageSettings instance.
+     */
+    public StorageSettings setEvictionPolicy(Supplier<EvictionPolicy> evictionPolicy) {
+        this.evictionPolicy = Objects.requireNonNull(evictionPolicy, "Eviction policy cannot be null!");
+        return this;
+    }
+
+    /**
+     * Sets how long flat file containers wait before writing their file after a change.
+     * Every change within the delay is written together, in a single write on an async thread.
+     *
+     * Writes always go through a temporary file that replaces the real file, so a crash can't truncate it.
+     * Changes that haven't been written yet will be lost on a hard crash, use the container's save method before disabling.
+     *
+     * @see me.dessie.dessielib.storageapi.storage.format.flatfile.JSONContainer#save()
+     * @see me.dessie.dessielib.storageapi.storage.format.flatfile.YAMLContainer#save()
+     *
+     * @param writeBehindDelay How long, in seconds, to wait before writing. Set to 0 to write after every change.
+     * @return The StorageSettings instance.
+     */
+    public StorageSettings setWriteBehindDelay(int writeBehindDelay) {
+        this.writeBehindDelay = writeBehindDelay;
+        return this;
+    }
+
+    /**
+     * Sets the {@link Executor} that retrieves values when recomposing a {@link me.dessie.dessielib.storageapi.storage.decomposition.StorageDecomposer}.
+     * Every value of an object, including nested objects, is retrieved together in a single task on this Executor.
+     *
+     * @param recomposeExecutor The Executor to retrieve on.
+     * @return The StorageSettings instance.
+     */
+    public StorageSettings setRecomposeExecutor(Executor recomposeExecutor) {
+        this.recomposeExecutor = Objects.requireNonNull(recomposeExecutor, "Executor cannot be null!");
+        return this;
+    }
+
     /**
      * Returns how long, in seconds, a {@link me.dessie.dessielib.storageapi.storage.cache.CachedObject} will be cached within
      * a {@link StorageContainer}'s {@link StorageCache}.
@@ -202,4 +321,66 @@ public class StorageSettings {
         return cacheOnStore;
     }
 
+    /**
+     * Returns the most objects the {@link StorageCache} can hold.
+     *
+     * @return The max entries, or -1 if the amount isn't limited.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Returns the most total weight the {@link StorageCache} can hold.
+     *
+     * @return The max weight, or -1 if the weight isn't limited.
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Returns how cached objects are weighed.
+     *
+     * @return The CacheWeigher.
+     */
+    public CacheWeigher getWeigher() {
+        return weigher;
+    }
+
+    /**
+     * Returns the supplier that creates the {@link EvictionPolicy} for a cache.
+     *
+     * @return The EvictionPolicy supplier.
+     */
+    public Supplier<EvictionPolicy> getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    /**
+     * Returns how long, in seconds, flat file containers wait before writing their file after a change.
+     *
+     * @return The write behind delay, or 0 if files are written after every change.
+     */
+    public int getWriteBehindDelay() {
+        return writeBehindDelay;
+    }
+
+    /**
+     * Returns the {@link Executor} that retrieves values when recomposing.
+     *
+     * @return The recompose Executor.
+     */
+    public Executor getRecomposeExecutor() {
+        return recomposeExecutor;
+    }
+
+    /**
+     * Returns if the {@link StorageCache} has a max entries or max weight.
+     *
+     * @return If the cache is bounded.
+     */
+    public boolean isCacheBounded() {
+        return this.maxEntries > 0 || this.maxWeight > 0;
+    }
 }